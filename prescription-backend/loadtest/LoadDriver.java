@@ -0,0 +1,94 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator used by compare-threading.sh. Each of the
+ * {@code concurrency} clients sends requests back to back for {@code seconds}:
+ * mostly list pages, some day-wise reports and a small share of password logins.
+ *
+ * Usage: java LoadDriver.java <baseUrl> <token> <concurrency> <seconds> <label>
+ * Prints one JSON line with throughput, latency percentiles and error counts.
+ */
+public class LoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        String token = args[1];
+        int concurrency = Integer.parseInt(args[2]);
+        int seconds = Integer.parseInt(args[3]);
+        String label = args[4];
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest list = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/prescription?startDate=2025-01-01&endDate=2025-12-31&size=50"))
+                .header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30)).build();
+        HttpRequest report = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/report/day-wise?startDate=2025-01-01&endDate=2025-12-31"))
+                .header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30)).build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json").timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\"}")).build();
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>();
+        long started = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                long[] latencies = new long[1 << 16];
+                perClient.add(latencies);
+                clients.submit(() -> {
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        int pick = ThreadLocalRandom.current().nextInt(100);
+                        HttpRequest request = pick < 1 ? login : pick < 15 ? report : list;
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 503 || response.statusCode() == 429) {
+                                shed.incrementAndGet();
+                            } else if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        if (n < latencies.length) {
+                            latencies[n] = System.nanoTime() - t0;
+                        }
+                        n++;
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).filter(v -> v > 0).sorted().toArray();
+        System.out.printf("{\"mode\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"throughput\":%.1f,"
+                        + "\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f,\"errors\":%d,\"shed\":%d}%n",
+                label, concurrency, all.length, all.length / elapsed,
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6,
+                errors.get(), shed.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request execution under the same load.
+# Needs a Java 21+ runtime on PATH (or JAVA_HOME). Run from prescription-backend:
+#
+#   loadtest/compare-threading.sh [concurrency] [seconds]
+#
+# For each mode it starts the packaged app, seeds one year of prescriptions through the
+# bulk import endpoint, runs LoadDriver, and samples RSS and live JVM threads while the
+# load runs. Results are appended to target/threading-compare.jsonl.
+set -euo pipefail
+
+CONCURRENCY="${1:-400}"
+SECONDS_PER_RUN="${2:-30}"
+PORT="${PORT:-18080}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+BASE="http://localhost:$PORT"
+OUT="target/threading-compare.jsonl"
+
+"$JAVA" -version 2>&1 | head -1
+ls target/prescription*.jar >/dev/null 2>&1 || ./mvnw -B -q -DskipTests package
+JAR=$(ls target/prescription*.jar | grep -v original | head -1)
+
+seed_rows() {
+  python3 -c '
+import json, random
+print(json.dumps([{"prescriptionDate": "2025-%02d-%02d" % (random.randint(1, 12), random.randint(1, 28)),
+                   "patientName": "Patient %d" % i, "patientAge": random.randint(0, 99),
+                   "patientGender": random.choice(["MALE", "FEMALE", "OTHER"]),
+                   "diagnosis": "Acute pharyngitis", "medicines": "Amoxicillin 500mg 1+0+1 7 days"}
+                  for i in range(5000)]))'
+}
+
+run_mode() {
+  local mode="$1" virtual="$2"
+  "$JAVA" -Xmx512m -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+      --observability.slow-query.threshold-ms=-1 --rate-limit.enabled=false >"target/threading-$mode.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" RETURN
+
+  for _ in $(seq 1 120); do
+    curl -sf "$BASE/actuator/health" >/dev/null && break
+    sleep 1
+  done
+
+  local token
+  token=$(curl -sf -XPOST "$BASE/api/auth/login" -H 'Content-Type: application/json' \
+      -d '{"username":"admin","password":"admin"}' | sed -E 's/.*"token":"([^"]+)".*/\1/')
+  seed_rows | curl -sf -XPOST "$BASE/api/v1/prescription/import" -H "Authorization: Bearer $token" \
+      -H 'Content-Type: application/json' --data-binary @- >/dev/null
+
+  local peak_rss=0 peak_threads=0
+  (
+    while kill -0 "$pid" 2>/dev/null; do
+      rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+      threads=$(curl -sf "$BASE/actuator/metrics/jvm.threads.live" -H "Authorization: Bearer $token" \
+          | sed -E 's/.*"value":([0-9.]+).*/\1/' || echo 0)
+      echo "$rss ${threads%.*}"
+      sleep 1
+    done
+  ) >"target/threading-$mode.samples" &
+  local sampler=$!
+
+  local result
+  result=$("$JAVA" loadtest/LoadDriver.java "$BASE" "$token" "$CONCURRENCY" "$SECONDS_PER_RUN" "$mode")
+  kill "$sampler" 2>/dev/null || true
+  peak_rss=$(awk 'BEGIN{m=0} {if ($1>m) m=$1} END{print m}' "target/threading-$mode.samples")
+  peak_threads=$(awk 'BEGIN{m=0} {if ($2>m) m=$2} END{print m}' "target/threading-$mode.samples")
+
+  echo "${result%\}},\"peakRssKb\":$peak_rss,\"peakJvmThreads\":$peak_threads}" | tee -a "$OUT"
+}
+
+mkdir -p target
+run_mode platform false
+run_mode virtual true
@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first successful request, for each startup configuration.
+# Needs the fast-startup build (mvn -Pstartup -DskipTests package) made with the same JVM
+# as the one that runs this script. Run from prescription-backend:
+#
+#   loadtest/startup-benchmark.sh [runs]
+#
+# Configurations, all from the extracted jar in target/startup:
+#   legacy       schema by ddl-auto=update, synchronous admin bootstrap, Swagger and H2 console on
+#   prod         prod profile: Flyway, deferred JPA bootstrap, tooling off, async admin bootstrap
+#   prod-aot     prod with the AOT-generated context
+#   prod-aot-cds prod-aot with the class-data-sharing archive
+#
+# For each start it records when the port first answers, when a request first succeeds (an
+# admin login, so the admin bootstrap has to have finished too) and Spring's own
+# "Started ... in" time. Results are appended to target/startup-benchmark.jsonl, followed by
+# the median per configuration.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18081}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+BASE="http://localhost:$PORT"
+OUT="target/startup-benchmark.jsonl"
+JAR=$(ls target/startup/prescription*.jar 2>/dev/null | head -1)
+ARCHIVE="target/startup/application.jsa"
+
+if [ -z "$JAR" ] || [ ! -f "$ARCHIVE" ]; then
+  echo "Build first: mvn -Pstartup -DskipTests package" >&2
+  exit 1
+fi
+"$JAVA" -version 2>&1 | head -1
+
+now_ms() { date +%s%3N; }
+
+start_once() {
+  local config="$1"; shift
+  local log="target/startup-$config.log"
+  local started first_response="" first_success=""
+  started=$(now_ms)
+  "$JAVA" "$@" --server.port="$PORT" --rate-limit.enabled=false >"$log" 2>&1 &
+  local pid=$!
+
+  while [ -z "$first_success" ]; do
+    kill -0 "$pid" 2>/dev/null || { echo "$config exited, see $log" >&2; return 1; }
+    local code
+    code=$(curl -s -o /dev/null -w '%{http_code}' --max-time 2 -XPOST "$BASE/api/auth/login" \
+        -H 'Content-Type: application/json' -d '{"username":"admin","password":"admin"}' || true)
+    if [ "$code" != "000" ] && [ -z "$first_response" ]; then
+      first_response=$(( $(now_ms) - started ))
+    fi
+    if [ "$code" = "200" ]; then
+      first_success=$(( $(now_ms) - started ))
+    else
+      sleep 0.01
+    fi
+  done
+
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  local spring
+  spring=$(sed -nE 's/.*Started PrescriptionApplication in ([0-9.]+) seconds.*/\1/p' "$log" | head -1)
+  echo "{\"config\":\"$config\",\"firstResponseMs\":$first_response,\"firstSuccessMs\":$first_success,\"springStartedS\":${spring:-null}}" \
+      | tee -a "$OUT"
+}
+
+run_config() {
+  local config="$1"; shift
+  for _ in $(seq 1 "$RUNS"); do
+    start_once "$config" "$@"
+  done
+}
+
+mkdir -p target
+run_config legacy -jar "$JAR" --spring.flyway.enabled=false --spring.jpa.hibernate.ddl-auto=update
+run_config prod -jar "$JAR" --spring.profiles.active=prod
+run_config prod-aot -Dspring.aot.enabled=true -jar "$JAR" --spring.profiles.active=prod
+run_config prod-aot-cds -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$JAR" \
+    --spring.profiles.active=prod
+
+echo "median firstSuccessMs per configuration over the last $RUNS runs:"
+for config in legacy prod prod-aot prod-aot-cds; do
+  grep "\"config\":\"$config\"" "$OUT" | tail -n "$RUNS" \
+      | sed -E 's/.*"firstSuccessMs":([0-9]+).*/\1/' | sort -n \
+      | awk -v c="$config" '{v[NR]=$1} END{print "  " c ": " v[int((NR+1)/2)] " ms"}'
+done
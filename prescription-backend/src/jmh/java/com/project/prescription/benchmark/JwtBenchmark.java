@@ -0,0 +1,58 @@
+package com.project.prescription.benchmark;
+
+import com.project.prescription.entity.User;
+import com.project.prescription.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation. {@code validateCached} is the steady state of a client
+ * reusing its token; {@code validateUncached} forces the full parse and HMAC check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtil = newJwtUtil(10_000);
+        uncachedJwtUtil = newJwtUtil(0);
+        user = new User("benchmark", "secret");
+        token = cachingJwtUtil.generateToken(user);
+    }
+
+    static JwtUtil newJwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmark-secret-key-that-is-at-least-32-chars");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Boolean validateCached() {
+        return cachingJwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public Boolean validateUncached() {
+        return uncachedJwtUtil.validateToken(token, user);
+    }
+}
@@ -0,0 +1,84 @@
+package com.project.prescription.benchmark;
+
+import com.project.prescription.config.JwtAuthenticationFilter;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.RevokedTokenRepository;
+import com.project.prescription.repository.UserRepository;
+import com.project.prescription.service.TokenRevocationService;
+import com.project.prescription.service.UserService;
+import com.project.prescription.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter} with a no-op chain
+ * and mocked repositories, so only token, revocation and principal handling is measured.
+ * {@code revokedTokens} other tokens are revoked first to show the Bloom-filter check
+ * stays off the table when it has entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"0", "1000"})
+    public int revokedTokens;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        User user = new User("benchmark", "secret");
+        user.setId(1L);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsername("benchmark")).thenReturn(Optional.of(user));
+
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil(10_000);
+        UserService userService = new UserService(userRepository, Mockito.mock(PlatformTransactionManager.class), 1000, 60_000);
+        filter = new JwtAuthenticationFilter(jwtUtil, userService, newRevocationService(jwtUtil, user, revokedTokens));
+        authorization = "Bearer " + jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/prescription");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    static TokenRevocationService newRevocationService(JwtUtil jwtUtil, User user, int revokedTokens) {
+        RevokedTokenRepository repository = Mockito.mock(RevokedTokenRepository.class);
+        Mockito.when(repository.streamActive(Mockito.any())).thenReturn(Stream.empty());
+        TokenRevocationService revocations = new TokenRevocationService(repository,
+                Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocations, "bucketWidthMillis", 900_000L);
+        ReflectionTestUtils.setField(revocations, "expectedPerBucket", 10_000);
+        ReflectionTestUtils.setField(revocations, "falsePositiveRate", 0.01);
+        revocations.loadOnStartup();
+        for (int i = 0; i < revokedTokens; i++) {
+            revocations.revoke(jwtUtil.verify(jwtUtil.generateToken(user)));
+        }
+        return revocations;
+    }
+}
@@ -0,0 +1,113 @@
+package com.project.prescription.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.prescription.controller.ReportController;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionPageDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.service.AnalyticsService;
+import com.project.prescription.service.ChangeVersionService;
+import com.project.prescription.service.DailyCountService;
+import com.project.prescription.service.MedicineService;
+import com.project.prescription.service.PrescriptionService;
+import com.project.prescription.service.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Per-row CPU costs that sit between the database and the socket: entity/DTO mapping,
+ * JSON rendering of a list page and the day-wise report's row-to-map loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"50"})
+    public int pageSize;
+
+    private Prescription prescription;
+    private PrescriptionDTO dto;
+    private PrescriptionPageDTO page;
+    private ObjectMapper objectMapper;
+    private ReportController reportController;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        prescription = sample(1);
+        dto = new PrescriptionDTO(prescription);
+
+        List<PrescriptionDTO> items = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new PrescriptionDTO(sample(i)));
+        }
+        page = new PrescriptionPageDTO(items, "MjAyNS0wMS0wMToxMDA", true, pageSize);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 31; i++) {
+            rows.add(new Object[]{day.plusDays(i), (long) (i + 1)});
+        }
+        PrescriptionService prescriptionService = Mockito.mock(PrescriptionService.class);
+        Mockito.when(prescriptionService.getDayWisePrescriptionCount(any(), any(), any())).thenReturn(rows);
+        reportController = new ReportController(prescriptionService, Mockito.mock(UserService.class),
+                Mockito.mock(DailyCountService.class), Mockito.mock(MedicineService.class),
+                Mockito.mock(AnalyticsService.class), new ChangeVersionService());
+        User user = new User("benchmark", "secret");
+        user.setId(1L);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    static Prescription sample(int i) {
+        Prescription p = new Prescription();
+        p.setId((long) i);
+        p.setPrescriptionDate(LocalDate.of(2025, 1, 1).plusDays(i % 28));
+        p.setPatientName("Patient " + i);
+        p.setPatientAge(20 + i % 60);
+        p.setPatientGender(Prescription.Gender.values()[i % 3]);
+        p.setDiagnosis("Acute pharyngitis with mild fever");
+        p.setMedicines("Amoxicillin 500mg 1+0+1 7 days\nParacetamol 500mg 1+1+1 3 days");
+        p.setNextVisitDate(LocalDate.of(2025, 3, 1));
+        return p;
+    }
+
+    @Benchmark
+    public PrescriptionDTO entityToDto() {
+        return new PrescriptionDTO(prescription);
+    }
+
+    @Benchmark
+    public Prescription dtoToEntity() {
+        return dto.toEntity();
+    }
+
+    @Benchmark
+    public byte[] serializeListPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object dayWiseReportLoop() {
+        return reportController.getDayWisePrescriptionCount(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), "rows", authentication,
+                new ServletWebRequest(new MockHttpServletRequest()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.project.prescription.benchmark;
+
+import com.project.prescription.PrescriptionApplication;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A list call of {@code rows} prescriptions read two ways: as managed entities mapped to
+ * DTOs in a read-write transaction, as the list endpoints did before, and as a JPQL
+ * constructor projection in a read-only transaction, as they do now. Call times are
+ * sampled, so the results include the p0.50 and p0.99 latencies as well as the mean. Run
+ * with {@code -prof gc} to compare allocation per call as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    @Param({"2000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PrescriptionRepository prescriptionRepository;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The security configuration needs the MVC context, so start on a random port
+        context = new SpringApplicationBuilder(PrescriptionApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:projection-benchmark;DB_CLOSE_DELAY=-1",
+                        "second-level-cache.enabled=false")
+                .run();
+        prescriptionRepository = context.getBean(PrescriptionRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        user = context.getBean(UserRepository.class).save(new User("benchmark", "secret"));
+
+        List<Prescription> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Prescription p = MappingBenchmark.sample(i);
+            p.setId(null);
+            p.setUser(user);
+            p.setPrescriptionDate(START.plusDays(i % 365));
+            batch.add(p);
+        }
+        prescriptionRepository.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PrescriptionDTO> entitiesMappedToDtos() {
+        return readWriteTransaction.execute(status ->
+                prescriptionRepository.findByUserAndPrescriptionDateBetween(user, START, END).stream()
+                        .map(PrescriptionDTO::new)
+                        .toList());
+    }
+
+    @Benchmark
+    public List<PrescriptionDTO> dtoProjection() {
+        return readOnlyTransaction.execute(status ->
+                prescriptionRepository.findDtoByUserAndPrescriptionDateBetween(user, START, END));
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.prescription.benchmark;
+
+import com.project.prescription.config.RateLimitFilter;
+import com.project.prescription.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RateLimitFilter} on requests that are not limited: one signed-in user
+ * per thread with limits high enough never to reject, against the same request passed
+ * straight to a no-op chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private RateLimitFilter filter;
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private UsernamePasswordAuthenticationToken authentication;
+
+        @Setup
+        public void setUp() {
+            User user = new User("benchmark-" + Thread.currentThread().getId(), "secret");
+            authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        int unlimited = Integer.MAX_VALUE;
+        filter = new RateLimitFilter(true, unlimited, 1000, unlimited, 1000, unlimited, 1000, unlimited, 1000,
+                unlimited, 1000, 60_000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object withoutFilter(Client client) throws Exception {
+        return run(client, null);
+    }
+
+    @Benchmark
+    public Object withFilter(Client client) throws Exception {
+        return run(client, filter);
+    }
+
+    private static Object run(Client client, RateLimitFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/prescription");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        SecurityContextHolder.getContext().setAuthentication(client.authentication);
+        try {
+            if (filter == null) {
+                chain.doFilter(request, response);
+            } else {
+                filter.doFilter(request, response, chain);
+            }
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.project.prescription.benchmark;
+
+import com.project.prescription.PrescriptionApplication;
+import com.project.prescription.dto.PrescriptionView;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.repository.UserRepository;
+import com.project.prescription.service.DailyCountService;
+import com.project.prescription.service.PrescriptionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link PrescriptionService} against an in-memory H2 seeded with
+ * {@code rows} prescriptions spread over one year for a single user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+    private static final LocalDate MONTH_END = LocalDate.of(2025, 1, 31);
+
+    @Param({"10000"})
+    public int rows;
+
+    // Day-wise counts come from the query cache when on
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private PrescriptionService prescriptionService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The security configuration needs the MVC context, so start on a random port
+        context = new SpringApplicationBuilder(PrescriptionApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "second-level-cache.enabled=" + secondLevelCache)
+                .run();
+        prescriptionService = context.getBean(PrescriptionService.class);
+        PrescriptionRepository prescriptionRepository = context.getBean(PrescriptionRepository.class);
+        user = context.getBean(UserRepository.class).save(new User("benchmark", "secret"));
+
+        List<Prescription> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Prescription p = MappingBenchmark.sample(i);
+            p.setId(null);
+            p.setUser(user);
+            p.setPrescriptionDate(START.plusDays(i % 365));
+            batch.add(p);
+            if (batch.size() == 1000) {
+                prescriptionRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        prescriptionRepository.saveAll(batch);
+        context.getBean(DailyCountService.class).rebuild(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object firstPage() {
+        return prescriptionService.getPrescriptionPage(user, START, END, null, 50, PrescriptionView.DETAIL);
+    }
+
+    @Benchmark
+    public Object firstPageSummary() {
+        return prescriptionService.getPrescriptionPage(user, START, END, null, 50, PrescriptionView.SUMMARY);
+    }
+
+    @Benchmark
+    public Object monthUnpaged() {
+        return prescriptionService.getPrescriptionsByDateRange(user, START, MONTH_END, PrescriptionView.DETAIL);
+    }
+
+    @Benchmark
+    public Object monthUnpagedSummary() {
+        return prescriptionService.getPrescriptionsByDateRange(user, START, MONTH_END, PrescriptionView.SUMMARY);
+    }
+
+    @Benchmark
+    public Object dayWiseCounts() {
+        return prescriptionService.getDayWisePrescriptionCount(user, START, MONTH_END);
+    }
+}
@@ -0,0 +1,89 @@
+package com.project.prescription.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.project.prescription.dto.DayCountDTO;
+import com.project.prescription.dto.DayWiseCountsDTO;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionPageDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode cost of the response bodies per wire format: a list page and a
+ * year of day-wise counts as rows and as columns. Decoding reads into a tree, as a client
+ * without the DTO classes would. Payload sizes, plain and gzipped, are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"page", "rows", "columnar"})
+    public String body;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        List<DayCountDTO> rows = new ArrayList<>();
+        List<LocalDate> days = new ArrayList<>();
+        int[] counts = new int[365];
+        for (int i = 0; i < counts.length; i++) {
+            rows.add(new DayCountDTO(start.plusDays(i), i % 17 + 1));
+            days.add(start.plusDays(i));
+            counts[i] = i % 17 + 1;
+        }
+        List<PrescriptionDTO> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(new PrescriptionDTO(MappingBenchmark.sample(i)));
+        }
+        value = switch (body) {
+            case "rows" -> rows;
+            case "columnar" -> new DayWiseCountsDTO(days, counts);
+            default -> new PrescriptionPageDTO(items, "MjAyNS0wMS0wMToxMDA", true, 50);
+        };
+
+        encoded = mapper.writeValueAsBytes(value);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%s %s: %d bytes, %d gzipped%n", format, body, encoded.length, gzipped.size());
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.prescription.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many password hashes run at once. BCrypt is pure CPU work, so running more
+ * of them than there are cores only adds queueing inside the scheduler; with virtual
+ * threads there is no thread-pool limit to do this for us.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore permits;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        acquire();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to hash a password", ex);
+        }
+    }
+}
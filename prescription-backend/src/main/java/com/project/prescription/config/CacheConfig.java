@@ -0,0 +1,106 @@
+package com.project.prescription.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache, held in bounded Caffeine caches behind JCache.
+ * Every region is created here with its own size and time-to-live; Hibernate refuses to
+ * start if an entity or query names a region that is not listed.
+ *
+ * <p>Writes keep the regions current without explicit evictions: entity regions are
+ * updated when the writing transaction commits, and any insert, update or delete on a
+ * table, bulk JPQL included, marks cached query results that read that table as stale.
+ */
+@Configuration
+@ConditionalOnProperty(name = "second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    private static final String USERS_REGION = "users";
+    private static final String USERS_BY_USERNAME_REGION = "users-by-username";
+    private static final String MEDICINES_REGION = "medicines";
+    private static final String REPORTS_REGION = "reports";
+
+    /**
+     * A cache manager of its own, so application contexts sharing a JVM (as tests do) do
+     * not collide on region names.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${second-level-cache.users.max-size:10000}") long usersMaxSize,
+            @Value("${second-level-cache.users.ttl-ms:600000}") long usersTtlMillis,
+            @Value("${second-level-cache.medicines.max-size:10000}") long medicinesMaxSize,
+            @Value("${second-level-cache.medicines.ttl-ms:3600000}") long medicinesTtlMillis,
+            @Value("${second-level-cache.reports.max-size:2000}") long reportsMaxSize,
+            @Value("${second-level-cache.reports.ttl-ms:300000}") long reportsTtlMillis) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(
+                CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("prescription-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        cacheManager.createCache(USERS_REGION, bounded(usersMaxSize, usersTtlMillis));
+        cacheManager.createCache(USERS_BY_USERNAME_REGION, bounded(usersMaxSize, usersTtlMillis));
+        cacheManager.createCache(MEDICINES_REGION, bounded(medicinesMaxSize, medicinesTtlMillis));
+        cacheManager.createCache(REPORTS_REGION, bounded(reportsMaxSize, reportsTtlMillis));
+        // Required by Hibernate whenever the query cache is on; every cacheable query names its own region
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(reportsMaxSize, reportsTtlMillis));
+        // One entry per table. An evicted entry would let stale query results through, so this one is never bounded.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * Gets, puts and evictions per region, next to the hit and miss counts Hibernate's own
+     * statistics export. Evictions in a region whose hit ratio is low mean it is too small.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name));
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxSize, long ttlMillis) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
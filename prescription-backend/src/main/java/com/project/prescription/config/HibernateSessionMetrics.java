@@ -0,0 +1,79 @@
+package com.project.prescription.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.SessionEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-session Hibernate listener. With open-in-view a session spans one request, so the
+ * summaries recorded at session end are statements, batches and flushes per request.
+ * Also logs a sample of statements slower than the configured threshold, together with
+ * the SQL captured by {@link SqlCaptureInspector}.
+ *
+ * <p>Hibernate instantiates this class itself, so settings are applied statically by
+ * {@link ObservabilityConfig} at startup.
+ */
+public class HibernateSessionMetrics implements SessionEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger("com.project.prescription.sql.slow");
+
+    private static volatile MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private static volatile long slowQueryThresholdNanos = Long.MAX_VALUE;
+    private static volatile double slowQuerySampleRate = 1.0;
+
+    private int statements;
+    private int batches;
+    private int flushes;
+    private int flushedEntities;
+    private long statementStart;
+
+    static void configure(MeterRegistry registry, long thresholdMillis, double sampleRate) {
+        meterRegistry = registry;
+        slowQueryThresholdNanos = thresholdMillis < 0 ? Long.MAX_VALUE : thresholdMillis * 1_000_000L;
+        slowQuerySampleRate = sampleRate;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        long elapsed = System.nanoTime() - statementStart;
+        if (elapsed >= slowQueryThresholdNanos
+                && (slowQuerySampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate)) {
+            log.warn("Slow SQL ({} ms): {}", elapsed / 1_000_000, SqlCaptureInspector.lastStatement());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        batches++;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+        flushedEntities += numberOfEntities;
+    }
+
+    @Override
+    public void end() {
+        MeterRegistry registry = meterRegistry;
+        DistributionSummary.builder("hibernate.session.statements")
+                .description("JDBC statements executed per session").register(registry).record(statements);
+        DistributionSummary.builder("hibernate.session.batches")
+                .description("JDBC batches executed per session").register(registry).record(batches);
+        DistributionSummary.builder("hibernate.session.flushes")
+                .description("Flushes per session").register(registry).record(flushes);
+        DistributionSummary.builder("hibernate.session.flushed.entities")
+                .description("Entities flushed per session").register(registry).record(flushedEntities);
+    }
+}
@@ -1,7 +1,9 @@
 package com.project.prescription.config;
 
+import com.project.prescription.service.TokenRevocationService;
 import com.project.prescription.service.UserService;
 import com.project.prescription.util.JwtUtil;
+import com.project.prescription.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,11 +25,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -44,18 +49,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username = null;
+        VerifiedToken verifiedToken;
 
         try {
-            username = jwtUtil.extractUsername(token);
+            verifiedToken = jwtUtil.verify(token);
         } catch (Exception ex) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        String username = verifiedToken.getSubject();
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(verifiedToken)) {
             UserDetails userDetails = userService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
+            // A disabled account is rejected even with an unexpired token
+            if (userDetails.isEnabled() && jwtUtil.validateToken(verifiedToken, userDetails)) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,40 @@
+package com.project.prescription.config;
+
+import com.project.prescription.service.UserService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sessionMetricsCustomizer(
+            MeterRegistry meterRegistry,
+            @Value("${observability.slow-query.threshold-ms:200}") long slowQueryThresholdMs,
+            @Value("${observability.slow-query.sample-rate:1.0}") double slowQuerySampleRate) {
+        HibernateSessionMetrics.configure(meterRegistry, slowQueryThresholdMs, slowQuerySampleRate);
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, HibernateSessionMetrics.class.getName());
+            properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new SqlCaptureInspector());
+        };
+    }
+
+    @Bean
+    public MeterBinder principalCacheMetrics(UserService userService) {
+        return registry -> {
+            FunctionCounter.builder("auth.principal.cache", userService, UserService::getPrincipalCacheHits)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("auth.principal.cache", userService, UserService::getPrincipalCacheMisses)
+                    .tag("result", "miss").register(registry);
+            Gauge.builder("auth.principal.cache.size", userService, UserService::getPrincipalCacheSize)
+                    .register(registry);
+        };
+    }
+}
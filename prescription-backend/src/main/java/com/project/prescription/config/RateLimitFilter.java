@@ -0,0 +1,194 @@
+package com.project.prescription.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-client token buckets for the API, with separate limits for sign-in, token refresh,
+ * reads, writes and reports. Runs right after {@link JwtAuthenticationFilter}, so
+ * signed-in requests are limited per user and anonymous ones per client address. Requests
+ * over the limit get 429 with a Retry-After header. Refreshes are anonymous and every
+ * signed-in user makes them, so a clinic behind one address shares a looser refresh bucket
+ * instead of the password-guessing limit.
+ *
+ * Each bucket is kept as a single timestamp, the time at which it would be full again
+ * (the GCRA form of a token bucket): a request is allowed while that time is no more than
+ * {@code burst - 1} intervals ahead of now, and pushes it one interval further. Taking a
+ * token is one compare-and-set, with no lock and no allocation. Clients whose buckets have
+ * all been full for the idle timeout are dropped by an occasional sweep; a full bucket
+ * and a missing one behave the same, so nothing is lost.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Limit {
+        LOGIN, REFRESH, READ, WRITE, REPORT
+    }
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean enabled;
+    private final long[] intervals = new long[Limit.values().length];
+    private final long[] tolerances = new long[Limit.values().length];
+    private final Counter[] rejected = new Counter[Limit.values().length];
+    private final long idleNanos;
+    // Keyed by username and by client address respectively
+    private final Map<String, Buckets> users = new ConcurrentHashMap<>();
+    private final Map<String, Buckets> addresses = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    @Autowired
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.login.per-minute:10}") int loginPerMinute,
+                           @Value("${rate-limit.login.burst:5}") int loginBurst,
+                           @Value("${rate-limit.refresh.per-minute:60}") int refreshPerMinute,
+                           @Value("${rate-limit.refresh.burst:30}") int refreshBurst,
+                           @Value("${rate-limit.read.per-minute:600}") int readPerMinute,
+                           @Value("${rate-limit.read.burst:100}") int readBurst,
+                           @Value("${rate-limit.write.per-minute:120}") int writePerMinute,
+                           @Value("${rate-limit.write.burst:30}") int writeBurst,
+                           @Value("${rate-limit.report.per-minute:60}") int reportPerMinute,
+                           @Value("${rate-limit.report.burst:20}") int reportBurst,
+                           @Value("${rate-limit.idle-eviction-ms:60000}") long idleEvictionMillis,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        configure(Limit.LOGIN, loginPerMinute, loginBurst);
+        configure(Limit.REFRESH, refreshPerMinute, refreshBurst);
+        configure(Limit.READ, readPerMinute, readBurst);
+        configure(Limit.WRITE, writePerMinute, writeBurst);
+        configure(Limit.REPORT, reportPerMinute, reportBurst);
+        for (Limit limit : Limit.values()) {
+            rejected[limit.ordinal()] = meterRegistry.counter("http.server.rate_limited", "limit", limit.name().toLowerCase());
+        }
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMillis);
+        this.nextSweep = new AtomicLong(System.nanoTime() + idleNanos);
+    }
+
+    private void configure(Limit limit, int perMinute, int burst) {
+        long interval = NANOS_PER_MINUTE / Math.max(1, perMinute);
+        intervals[limit.ordinal()] = interval;
+        tolerances[limit.ordinal()] = interval * (Math.max(1, burst) - 1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Limit limit = classify(request);
+        long now = System.nanoTime();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long waitNanos = authentication != null && authentication.isAuthenticated()
+                ? acquire(users, authentication.getName(), limit, now)
+                : acquire(addresses, request.getRemoteAddr(), limit, now);
+        sweepIfDue(now);
+
+        if (waitNanos > 0) {
+            rejected[limit.ordinal()].increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, please retry later\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static Limit classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/auth/login") || uri.startsWith("/api/auth/register")) {
+            return Limit.LOGIN;
+        }
+        if (uri.startsWith("/api/auth/refresh")) {
+            return Limit.REFRESH;
+        }
+        if (uri.startsWith("/api/v1/report/")) {
+            return Limit.REPORT;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ? Limit.READ : Limit.WRITE;
+    }
+
+    /**
+     * Takes a token from the client's bucket for {@code limit}.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    private long acquire(Map<String, Buckets> clients, String key, Limit limit, long now) {
+        Buckets buckets = clients.get(key);
+        if (buckets == null) {
+            buckets = clients.computeIfAbsent(key, k -> new Buckets(now));
+        }
+        int slot = limit.ordinal();
+        long interval = intervals[slot];
+        long tolerance = tolerances[slot];
+        while (true) {
+            long fullAt = buckets.fullAt.get(slot);
+            long start = fullAt - now > 0 ? fullAt : now;
+            long ahead = start - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (buckets.fullAt.compareAndSet(slot, fullAt, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + idleNanos)) {
+            return;
+        }
+        // A request racing the removal may land on a dropped bucket; that bucket was full, so at most it gets one token back
+        users.values().removeIf(buckets -> buckets.idleSince(now - idleNanos));
+        addresses.values().removeIf(buckets -> buckets.idleSince(now - idleNanos));
+    }
+
+    private static final class Buckets {
+
+        private final AtomicLongArray fullAt = new AtomicLongArray(Limit.values().length);
+
+        private Buckets(long now) {
+            for (int i = 0; i < fullAt.length(); i++) {
+                fullAt.set(i, now);
+            }
+        }
+
+        private boolean idleSince(long time) {
+            for (int i = 0; i < fullAt.length(); i++) {
+                if (fullAt.get(i) - time > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.project.prescription.config;
+
+import com.project.prescription.entity.User;
+import com.project.prescription.service.ShardRouter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Routes the prescription and report endpoints to the signed-in user's shard for the rest
+ * of the request. Runs after authentication so the principal is known; requests for a user
+ * whose data is being moved wait for the move and get 503 if it takes too long.
+ */
+@Component
+public class ShardBindingFilter extends OncePerRequestFilter {
+
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardBindingFilter(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/v1/prescription") && !path.startsWith("/api/v1/report");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ShardRouter.Binding binding = shardRouter.tryEnter(user);
+        if (binding == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Prescriptions are being moved, please retry\"}");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            binding.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.prescription.config;
+
+import com.project.prescription.util.ShardContext;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The application's single DataSource. Each new connection comes from the pool of the
+ * shard in {@link ShardContext}, so one entity manager factory and one transaction
+ * manager serve every shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardContext.DIRECTORY));
+        // An unknown key is a routing bug; failing beats writing to the directory by accident
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * The shard's own pool, for work that addresses a shard explicitly rather than through the context.
+     */
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.prescription.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prescription data is partitioned by user across sharding.count databases. Shard 0 is
+ * the database in spring.datasource.url and also holds the directory (users, tokens, the
+ * medicine dictionary and the user-to-shard assignments); shards 1 and up use the URL
+ * pattern with {shard} replaced by their number. Every shard gets the full schema.
+ */
+@Configuration
+public class ShardingConfig {
+
+    // Each shard draws prescription ids from its own range, so ids stay unique when a user moves
+    private static final long IDS_PER_SHARD = 1L << 40;
+
+    // Matches the increment of the sequences; Hibernate hands out the block of ids below each value
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String[] ID_SEQUENCES = {"prescriptions_seq", "prescription_medicines_seq"};
+
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry,
+                                             @Value("${sharding.count:1}") int shardCount,
+                                             @Value("${sharding.url-pattern:jdbc:h2:mem:prescriptiondb-shard{shard}}") String urlPattern,
+                                             @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        if (shardCount < 1) {
+            throw new IllegalStateException("sharding.count must be at least 1");
+        }
+        List<HikariDataSource> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            if (shard > 0) {
+                dataSource.setJdbcUrl(urlPattern.replace("{shard}", String.valueOf(shard)));
+            }
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Runs the migrations, configured as usual through spring.flyway.*, on every shard
+     * rather than only the one the routing DataSource defaults to.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource dataSource) {
+        return flyway -> {
+            for (int shard = 0; shard < dataSource.getShardCount(); shard++) {
+                DataSource target = dataSource.getShard(shard);
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(target).load().migrate();
+                reserveIdRange(target, shard);
+            }
+        };
+    }
+
+    /**
+     * Sessions hold on to their connection between transactions by default, which with
+     * open-in-view would pin a whole request to the shard of its first transaction.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Moves the id sequences of a shard to the start of its range if they are still below it.
+     * Hibernate caches blocks of sequence values across all shards, so overlapping ranges
+     * would produce duplicate ids even within one shard.
+     */
+    private static void reserveIdRange(DataSource dataSource, int shard) {
+        long start = shard * IDS_PER_SHARD + ID_ALLOCATION_SIZE;
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String sequence : ID_SEQUENCES) {
+            Long next = jdbc.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+            if (next != null && next < start) {
+                jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.prescription.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last SQL string prepared on the current thread so the slow-query log
+ * in {@link HibernateSessionMetrics} can show which statement was slow.
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_STATEMENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_STATEMENT.set(sql);
+        return sql;
+    }
+
+    static String lastStatement() {
+        return LAST_STATEMENT.get();
+    }
+}
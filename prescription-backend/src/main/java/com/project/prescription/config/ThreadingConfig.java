@@ -0,0 +1,39 @@
+package com.project.prescription.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request execution mode. Platform threads (the default) are bounded by Tomcat's worker
+ * pool. With spring.threads.virtual.enabled=true on a Java 21+ runtime each request gets
+ * a virtual thread, and the API is put behind a bulkhead sized to the connection pool.
+ * The bulkhead runs after the security chain, so requests that are unauthenticated or
+ * over their rate limit are turned away without taking a permit.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    // A request can hold a second connection for a nested directory or dictionary transaction
+    private static final int CONNECTIONS_PER_REQUEST = 2;
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${server.virtual-threads.max-concurrent-requests:0}") int maxConcurrentRequests,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${server.virtual-threads.max-wait-ms:2000}") long maxWaitMillis) {
+        int limit = maxConcurrentRequests > 0
+                ? maxConcurrentRequests
+                : Math.max(1, maximumPoolSize / CONNECTIONS_PER_REQUEST);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limit, maxWaitMillis));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -1,6 +1,16 @@
 package com.project.prescription.config;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionView;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -11,9 +21,35 @@ public class WebConfig implements WebMvcConfigurer {
     public void addCorsMappings(@org.springframework.lang.NonNull CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("http://localhost:3000", "http://localhost:5173")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
-}
 
+    /**
+     * Lets responses trim prescriptions to a {@link PrescriptionView}. Without a view
+     * nothing is filtered.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer prescriptionViewCustomizer() {
+        return builder -> builder.mixIn(PrescriptionDTO.class, PrescriptionView.FilterMixin.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /*
+     * Binary alternatives to JSON, chosen by the Accept header (application/cbor or
+     * application/x-jackson-smile). JSON stays first, so clients that accept anything still
+     * get JSON. Both mappers start from Boot's builder so they serialize exactly like the
+     * JSON one, dates as ISO strings included.
+     */
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
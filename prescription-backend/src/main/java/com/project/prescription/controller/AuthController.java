@@ -1,5 +1,9 @@
 package com.project.prescription.controller;
 
+import com.project.prescription.entity.User;
+import com.project.prescription.service.RefreshTokenService;
+import com.project.prescription.service.TokenRevocationService;
+import com.project.prescription.service.UserService;
 import com.project.prescription.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,15 +27,22 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserService userService,
+                          RefreshTokenService refreshTokenService, TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/login")
-    @Operation(summary = "User login", description = "Authenticate user and return JWT token")
+    @Operation(summary = "User login", description = "Authenticate user and return a short-lived JWT token and a refresh token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
         @ApiResponse(responseCode = "401", description = "Invalid credentials")
@@ -50,17 +61,9 @@ public class AuthController {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(username, password));
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            User user = (User) authentication.getPrincipal();
 
-            String token = jwtUtil.generateToken(userDetails);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Login successful");
-            response.put("username", userDetails.getUsername());
-            response.put("token", token);
-            response.put("tokenType", "Bearer");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(tokenResponse("Login successful", user, refreshTokenService.issue(user)));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Invalid username or password");
@@ -68,6 +71,56 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchange a refresh token for a new JWT token and a new refresh token. "
+            + "Each refresh token works once; presenting a used one signs out the whole session")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+        @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired, revoked or reused")
+    })
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> body) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(body.get("refreshToken"));
+            return ResponseEntity.ok(tokenResponse("Token refreshed", rotation.getUser(), rotation.getRefreshToken()));
+        } catch (RefreshTokenService.InvalidRefreshTokenException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(401).body(error);
+        }
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the refresh token and the JWT token sent in the Authorization header")
+    public ResponseEntity<?> logout(@RequestBody(required = false) Map<String, String> body,
+                                    @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                tokenRevocationService.revoke(jwtUtil.verify(authHeader.substring(7)));
+            } catch (Exception e) {
+                // Invalid or expired tokens are rejected anyway
+            }
+        }
+        try {
+            refreshTokenService.revoke(body != null ? body.get("refreshToken") : null);
+        } catch (RefreshTokenService.InvalidRefreshTokenException e) {
+            // Nothing to revoke
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logout successful");
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> tokenResponse(String message, UserDetails userDetails, String refreshToken) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("username", userDetails.getUsername());
+        response.put("token", jwtUtil.generateToken(userDetails));
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", jwtUtil.getExpirationMillis() / 1000);
+        response.put("refreshToken", refreshToken);
+        return response;
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -83,4 +136,3 @@ public class AuthController {
         return ResponseEntity.ok(userInfo);
     }
 }
-
@@ -1,8 +1,17 @@
 package com.project.prescription.controller;
 
+import com.project.prescription.dto.ImportResultDTO;
+import com.project.prescription.dto.PatientNameSuggestionDTO;
 import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionPageDTO;
+import com.project.prescription.dto.PrescriptionPatchDTO;
+import com.project.prescription.dto.PrescriptionView;
 import com.project.prescription.entity.User;
+import com.project.prescription.service.ChangeVersionService;
+import com.project.prescription.service.PrescriptionExportService;
+import com.project.prescription.service.PrescriptionImportService;
 import com.project.prescription.service.PrescriptionService;
+import com.project.prescription.service.ShardRouter;
 import com.project.prescription.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,16 +19,28 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,27 +51,92 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class PrescriptionRestController {
 
+    // Clients may keep a private copy but must revalidate it with the ETag on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String FIELDS_DESCRIPTION = "Properties to return, comma-separated: property names, "
+            + "summary or detail, e.g. summary,diagnosis";
+
     private final PrescriptionService prescriptionService;
     private final UserService userService;
+    private final PrescriptionImportService prescriptionImportService;
+    private final PrescriptionExportService prescriptionExportService;
+    private final ChangeVersionService changeVersions;
+    private final ShardRouter shardRouter;
+
+    @Value("${prescription.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${prescription.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${prescription.patient-names.max-suggestions:20}")
+    private int maxSuggestions;
 
     @Autowired
-    public PrescriptionRestController(PrescriptionService prescriptionService, UserService userService) {
+    public PrescriptionRestController(PrescriptionService prescriptionService, UserService userService,
+                                      PrescriptionImportService prescriptionImportService,
+                                      PrescriptionExportService prescriptionExportService,
+                                      ChangeVersionService changeVersions,
+                                      ShardRouter shardRouter) {
         this.prescriptionService = prescriptionService;
         this.userService = userService;
+        this.prescriptionImportService = prescriptionImportService;
+        this.prescriptionExportService = prescriptionExportService;
+        this.changeVersions = changeVersions;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Sets ETag and Last-Modified from the user's change version and reports whether the
+     * client's copy is still current, in which case the response is already a 304.
+     */
+    private boolean isNotModified(WebRequest webRequest, User user, Object... variant) {
+        // The body differs per negotiated format, so the Accept header is part of the variant
+        String etag = changeVersions.etag(user, webRequest.getHeader(HttpHeaders.ACCEPT), Arrays.hashCode(variant));
+        return webRequest.checkNotModified(etag, changeVersions.lastModified(user));
     }
 
     private User getCurrentUser(Authentication authentication) {
+        // JwtAuthenticationFilter already resolved the User entity as the principal
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
         return userService.findByUsername(username);
     }
 
+    /**
+     * Wraps a response body so its prescriptions are written with only the view's properties.
+     */
+    private static MappingJacksonValue inView(Object body, PrescriptionView view) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(view.getFilters());
+        return value;
+    }
+
+    private ResponseEntity<Map<String, String>> conflict() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Prescription was changed by someone else; reload it and try again");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @GetMapping
+    @Operation(summary = "List prescriptions",
+               description = "Returns prescriptions in the date range one page at a time, ordered by date then id. "
+                       + "Pass the returned nextCursor to fetch the following page. Set unpaged=true to get the whole range as a plain list. "
+                       + "Items are summaries without diagnosis and medicines unless fields asks for them.")
     public ResponseEntity<?> getPrescriptions(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            Authentication authentication) {
+            @Parameter(description = "Continuation cursor from a previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Return the full range without paging") @RequestParam(defaultValue = "false") boolean unpaged,
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+            Authentication authentication, WebRequest webRequest) {
         
         User currentUser = getCurrentUser(authentication);
+        PrescriptionView view = PrescriptionView.parse(fields, PrescriptionView.SUMMARY);
         
         if (startDate == null || endDate == null) {
             LocalDate now = LocalDate.now();
@@ -58,18 +144,106 @@ public class PrescriptionRestController {
             endDate = now.withDayOfMonth(now.lengthOfMonth());
         }
         
-        List<PrescriptionDTO> prescriptions = prescriptionService.getPrescriptionsByDateRange(
-                currentUser, startDate, endDate);
+        // Answered from the in-memory change version; no query runs when the client is current
+        if (isNotModified(webRequest, currentUser, startDate, endDate, view)) {
+            return null;
+        }
+        
+        if (unpaged) {
+            List<PrescriptionDTO> prescriptions = prescriptionService.getPrescriptionsByDateRange(
+                    currentUser, startDate, endDate, view);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                    .body(inView(prescriptions, view));
+        }
+        
+        int pageSize = size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+        PrescriptionPageDTO page = prescriptionService.getPrescriptionPage(
+                currentUser, startDate, endDate, cursor, pageSize, view);
         
-        return ResponseEntity.ok(prescriptions);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(inView(page, view));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search prescriptions",
+               description = "Full-text search over diagnosis and medicines, newest prescription date first. Terms separated by spaces "
+                       + "must all match, OR separates alternatives and a trailing * matches a prefix, "
+                       + "e.g. \"amox* fever OR pharyngitis\". Items are summaries unless fields asks for more.")
+    public ResponseEntity<?> searchPrescriptions(
+            @Parameter(description = "Search query") @RequestParam String q,
+            @Parameter(description = "Continuation cursor from a previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server") @RequestParam(required = false) Integer size,
+            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+            Authentication authentication, WebRequest webRequest) {
+
+        User currentUser = getCurrentUser(authentication);
+        PrescriptionView view = PrescriptionView.parse(fields, PrescriptionView.SUMMARY);
+        if (isNotModified(webRequest, currentUser, view)) {
+            return null;
+        }
+        int pageSize = size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+        PrescriptionPageDTO page = prescriptionService.searchPrescriptions(currentUser, q, cursor, pageSize, view);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(inView(page, view));
+    }
+
+    @GetMapping("/patient-names")
+    @Operation(summary = "Autocomplete patient names",
+               description = "Distinct patient names starting with the prefix, ignoring case and accents, most visited first.")
+    public ResponseEntity<List<PatientNameSuggestionDTO>> suggestPatientNames(
+            @Parameter(description = "Beginning of the patient name") @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        int cappedLimit = Math.max(1, Math.min(limit, maxSuggestions));
+        return ResponseEntity.ok(prescriptionService.suggestPatientNames(currentUser, prefix, cappedLimit));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export prescriptions",
+               description = "Streams the user's prescriptions as NDJSON or CSV, ordered by date then id. "
+                       + "Omit the dates to export everything.")
+    public ResponseEntity<StreamingResponseBody> exportPrescriptions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        
+        User currentUser = getCurrentUser(authentication);
+        PrescriptionExportService.Format exportFormat;
+        try {
+            exportFormat = PrescriptionExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+        
+        boolean csv = exportFormat == PrescriptionExportService.Format.CSV;
+        // Written on an async thread, which is not bound to the user's shard by the request filter
+        StreamingResponseBody body = out -> {
+            try (ShardRouter.Binding binding = shardRouter.enter(currentUser)) {
+                prescriptionExportService.export(currentUser, startDate, endDate, exportFormat, out);
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"prescriptions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPrescription(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getPrescription(@PathVariable Long id,
+                                             @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+                                             Authentication authentication, WebRequest webRequest) {
+        // Parsed outside the try so an unknown field is a 400, not a 404
+        PrescriptionView view = PrescriptionView.parse(fields, PrescriptionView.DETAIL);
         try {
             User currentUser = getCurrentUser(authentication);
+            if (isNotModified(webRequest, currentUser, view)) {
+                return null;
+            }
             PrescriptionDTO prescription = prescriptionService.getPrescriptionById(id, currentUser);
-            return ResponseEntity.ok(prescription);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(inView(prescription, view));
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -92,7 +266,24 @@ public class PrescriptionRestController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import prescriptions",
+               description = "Accepts a JSON array or an NDJSON stream of prescriptions. Valid rows are written in "
+                       + "batched chunks; invalid rows are reported individually and do not stop the import.")
+    public ResponseEntity<?> importPrescriptions(HttpServletRequest request, Authentication authentication)
+            throws IOException {
+        User currentUser = getCurrentUser(authentication);
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ImportResultDTO result = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? prescriptionImportService.importNdjson(request.getInputStream(), currentUser)
+                : prescriptionImportService.importJsonArray(request.getInputStream(), currentUser);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
+    @Operation(summary = "Update a prescription",
+               description = "Replaces every field. If the body carries the version it was read at, the update "
+                       + "is rejected with 409 when someone else has saved the prescription since.")
     public ResponseEntity<?> updatePrescription(
             @PathVariable Long id,
             @Valid @RequestBody PrescriptionDTO prescriptionDTO,
@@ -102,6 +293,38 @@ public class PrescriptionRestController {
             prescriptionDTO.setId(id);
             PrescriptionDTO updatedPrescription = prescriptionService.updatePrescription(id, prescriptionDTO, currentUser);
             return ResponseEntity.ok(updatedPrescription);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update a prescription",
+               description = "Changes only the properties present in the body; a property sent as null is cleared. "
+                       + "The body must carry the version the change is based on. Returns the new version.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Prescription updated"),
+        @ApiResponse(responseCode = "404", description = "Prescription not found"),
+        @ApiResponse(responseCode = "409", description = "Prescription was saved by someone else since that version")
+    })
+    public ResponseEntity<?> patchPrescription(
+            @Parameter(description = "Prescription ID") @PathVariable Long id,
+            @Valid @RequestBody PrescriptionPatchDTO patch,
+            Authentication authentication) {
+        try {
+            User currentUser = getCurrentUser(authentication);
+            long version = prescriptionService.patchPrescription(id, patch, currentUser);
+            Map<String, Object> result = new HashMap<>();
+            result.put("message", "Prescription updated successfully");
+            result.put("id", id);
+            result.put("version", version);
+            return ResponseEntity.ok(result);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -124,6 +347,8 @@ public class PrescriptionRestController {
             Map<String, String> message = new HashMap<>();
             message.put("message", "Prescription deleted successfully");
             return ResponseEntity.ok(message);
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -131,4 +356,3 @@ public class PrescriptionRestController {
         }
     }
 }
-
@@ -1,22 +1,36 @@
 package com.project.prescription.controller;
 
+import com.project.prescription.dto.DayCountDTO;
+import com.project.prescription.dto.DayWiseCountsDTO;
+import com.project.prescription.dto.DemographicsDTO;
+import com.project.prescription.dto.MedicineUsageDTO;
 import com.project.prescription.entity.User;
+import com.project.prescription.service.AnalyticsService;
+import com.project.prescription.service.ChangeVersionService;
+import com.project.prescription.service.DailyCountService;
+import com.project.prescription.service.MedicineService;
 import com.project.prescription.service.PrescriptionService;
 import com.project.prescription.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -25,29 +39,81 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class ReportController {
 
+    /**
+     * Layout of the day-wise report: a list of {day, prescriptionCount} objects, or
+     * parallel days[] and counts[] arrays.
+     */
+    public enum Shape {
+        ROWS, COLUMNAR;
+
+        public static Shape parse(String shape) {
+            try {
+                return valueOf(shape.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown report shape: " + shape.trim());
+            }
+        }
+    }
+
+    // Clients may keep a private copy but must revalidate it with the ETag on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PrescriptionService prescriptionService;
     private final UserService userService;
+    private final DailyCountService dailyCountService;
+    private final MedicineService medicineService;
+    private final AnalyticsService analyticsService;
+    private final ChangeVersionService changeVersions;
+
+    @Value("${report.top-medicines.max-limit:100}")
+    private int maxTopMedicines;
+
+    @Value("${report.demographics.max-top-diagnoses:100}")
+    private int maxTopDiagnoses;
 
     @Autowired
-    public ReportController(PrescriptionService prescriptionService, UserService userService) {
+    public ReportController(PrescriptionService prescriptionService, UserService userService,
+                            DailyCountService dailyCountService, MedicineService medicineService,
+                            AnalyticsService analyticsService, ChangeVersionService changeVersions) {
         this.prescriptionService = prescriptionService;
         this.userService = userService;
+        this.dailyCountService = dailyCountService;
+        this.medicineService = medicineService;
+        this.analyticsService = analyticsService;
+        this.changeVersions = changeVersions;
+    }
+
+    /**
+     * Sets ETag and Last-Modified from the user's change version and reports whether the
+     * client's copy is still current, in which case the response is already a 304.
+     */
+    private boolean isNotModified(WebRequest webRequest, User user, Object... variant) {
+        // The body differs per negotiated format, so the Accept header is part of the variant
+        String etag = changeVersions.etag(user, webRequest.getHeader(HttpHeaders.ACCEPT), Arrays.hashCode(variant));
+        return webRequest.checkNotModified(etag, changeVersions.lastModified(user));
     }
 
     private User getCurrentUser(Authentication authentication) {
+        // JwtAuthenticationFilter already resolved the User entity as the principal
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
         return userService.findByUsername(username);
     }
 
     @GetMapping("/day-wise")
     @Operation(summary = "Get day-wise prescription count",
-               description = "Returns the count of prescriptions grouped by day for the specified date range")
+               description = "Returns the count of prescriptions grouped by day for the specified date range. "
+                       + "shape=columnar returns parallel days and counts arrays instead of one object per day")
     public ResponseEntity<?> getDayWisePrescriptionCount(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            Authentication authentication) {
+            @RequestParam(defaultValue = "rows") String shape,
+            Authentication authentication, WebRequest webRequest) {
         
         User currentUser = getCurrentUser(authentication);
+        Shape reportShape = Shape.parse(shape);
         
         if (startDate == null || endDate == null) {
             LocalDate now = LocalDate.now();
@@ -55,18 +121,126 @@ public class ReportController {
             endDate = now.withDayOfMonth(now.lengthOfMonth());
         }
         
+        if (isNotModified(webRequest, currentUser, startDate, endDate, reportShape)) {
+            return null;
+        }
+        
         List<Object[]> dayWiseCounts = prescriptionService.getDayWisePrescriptionCount(
                 currentUser, startDate, endDate);
         
-        List<Map<String, Object>> report = new ArrayList<>();
-        for (Object[] row : dayWiseCounts) {
-            Map<String, Object> entry = new HashMap<>();
-            entry.put("day", row[0].toString());
-            entry.put("prescriptionCount", ((Long) row[1]).intValue());
-            report.add(entry);
+        Object report;
+        if (reportShape == Shape.COLUMNAR) {
+            List<LocalDate> days = new ArrayList<>(dayWiseCounts.size());
+            int[] counts = new int[dayWiseCounts.size()];
+            for (int i = 0; i < counts.length; i++) {
+                Object[] row = dayWiseCounts.get(i);
+                days.add((LocalDate) row[0]);
+                counts[i] = ((Long) row[1]).intValue();
+            }
+            report = new DayWiseCountsDTO(days, counts);
+        } else {
+            List<DayCountDTO> rows = new ArrayList<>(dayWiseCounts.size());
+            for (Object[] row : dayWiseCounts) {
+                rows.add(new DayCountDTO((LocalDate) row[0], ((Long) row[1]).intValue()));
+            }
+            report = rows;
         }
         
-        return ResponseEntity.ok(report);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(report);
+    }
+
+    @PostMapping("/day-wise/rebuild")
+    @Operation(summary = "Rebuild day-wise counters",
+               description = "Recomputes the current user's daily prescription counters from the prescriptions table")
+    public ResponseEntity<?> rebuildDayWiseCounts(Authentication authentication) {
+        User currentUser = getCurrentUser(authentication);
+        int days = dailyCountService.rebuild(currentUser);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Day-wise counters rebuilt");
+        result.put("days", days);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/day-wise/rebuild-all")
+    @Operation(summary = "Rebuild day-wise counters for all users",
+               description = "Recomputes every user's daily prescription counters from the prescriptions table (admin only)")
+    public ResponseEntity<?> rebuildAllDayWiseCounts() {
+        int days = dailyCountService.rebuildAll();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Day-wise counters rebuilt for all users");
+        result.put("days", days);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/top-medicines")
+    @Operation(summary = "Get most prescribed medicines",
+               description = "Returns the medicines that appear in the most prescriptions within the date range, "
+                       + "counted from the parsed medicine lines")
+    public ResponseEntity<List<MedicineUsageDTO>> getTopMedicines(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication, WebRequest webRequest) {
+        
+        User currentUser = getCurrentUser(authentication);
+        
+        if (startDate == null || endDate == null) {
+            LocalDate now = LocalDate.now();
+            startDate = now.withDayOfMonth(1);
+            endDate = now.withDayOfMonth(now.lengthOfMonth());
+        }
+        
+        if (isNotModified(webRequest, currentUser, startDate, endDate)) {
+            return null;
+        }
+        
+        int cappedLimit = Math.max(1, Math.min(limit, maxTopMedicines));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                .body(medicineService.getTopMedicines(currentUser, startDate, endDate, cappedLimit));
     }
-}
 
+    @GetMapping("/demographics")
+    @Operation(summary = "Get patient demographics",
+               description = "Returns age bands, gender breakdown and most frequent diagnoses for the date range, "
+                       + "computed in one pass. Use facets to ask for a subset, e.g. facets=age,gender")
+    public ResponseEntity<DemographicsDTO> getDemographics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String facets,
+            @RequestParam(defaultValue = "10") int ageBandWidth,
+            @RequestParam(defaultValue = "10") int topDiagnoses,
+            Authentication authentication, WebRequest webRequest) {
+        
+        User currentUser = getCurrentUser(authentication);
+        
+        if (startDate == null || endDate == null) {
+            LocalDate now = LocalDate.now();
+            startDate = now.withDayOfMonth(1);
+            endDate = now.withDayOfMonth(now.lengthOfMonth());
+        }
+        
+        if (isNotModified(webRequest, currentUser, startDate, endDate)) {
+            return null;
+        }
+        
+        DemographicsDTO demographics = analyticsService.getDemographics(currentUser, startDate, endDate,
+                AnalyticsService.Facet.parse(facets), Math.max(1, ageBandWidth),
+                Math.max(0, Math.min(topDiagnoses, maxTopDiagnoses)));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(demographics);
+    }
+
+    @PostMapping("/top-medicines/rebuild")
+    @Operation(summary = "Rebuild medicine lines",
+               description = "Re-parses the medicines text of all the current user's prescriptions into medicine lines")
+    public ResponseEntity<?> rebuildMedicineLines(Authentication authentication) {
+        User currentUser = getCurrentUser(authentication);
+        int lines = medicineService.rebuild(currentUser);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Medicine lines rebuilt");
+        result.put("lines", lines);
+        return ResponseEntity.ok(result);
+    }
+}
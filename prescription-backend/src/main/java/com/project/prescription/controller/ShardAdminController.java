@@ -0,0 +1,66 @@
+package com.project.prescription.controller;
+
+import com.project.prescription.dto.DayCountDTO;
+import com.project.prescription.dto.ShardStatsDTO;
+import com.project.prescription.entity.User;
+import com.project.prescription.service.ShardAdminService;
+import com.project.prescription.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shard maintenance for admins only (ROLE_ADMIN, required for /api/v1/admin/** in
+ * SecurityConfig): per-shard statistics, reports across every user, and moving a user to
+ * another shard.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/shards")
+@Tag(name = "Shard administration", description = "Cross-shard statistics, reports and user moves (admin only)")
+@SecurityRequirement(name = "bearerAuth")
+public class ShardAdminController {
+
+    private final ShardAdminService shardAdminService;
+    private final UserService userService;
+
+    @Autowired
+    public ShardAdminController(ShardAdminService shardAdminService, UserService userService) {
+        this.shardAdminService = shardAdminService;
+        this.userService = userService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get shard statistics",
+               description = "Returns the users assigned to each shard and the rows it holds")
+    public ResponseEntity<List<ShardStatsDTO>> getStats() {
+        List<ShardStatsDTO> stats = shardAdminService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/day-wise")
+    @Operation(summary = "Get day-wise prescription count for all users",
+               description = "Sums the daily counters of every user on every shard over the date range")
+    public ResponseEntity<List<DayCountDTO>> getDayWiseTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<DayCountDTO> report = shardAdminService.getDayWiseTotals(startDate, endDate);
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/move")
+    @Operation(summary = "Move a user to another shard",
+               description = "Copies the user's prescriptions to the target shard and switches them over; "
+                       + "the user's requests wait while the move runs")
+    public ResponseEntity<Map<String, Object>> moveUser(@RequestParam String username, @RequestParam int shard) {
+        User user = userService.findByUsername(username);
+        return ResponseEntity.ok(shardAdminService.moveUser(user, shard));
+    }
+}
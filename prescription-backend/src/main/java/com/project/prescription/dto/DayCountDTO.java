@@ -0,0 +1,39 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Number of prescriptions on one day")
+public class DayCountDTO {
+
+    @Schema(description = "Day", example = "2025-01-15")
+    private LocalDate day;
+
+    @Schema(description = "Number of prescriptions dated that day", example = "7")
+    private int prescriptionCount;
+
+    public DayCountDTO() {
+    }
+
+    public DayCountDTO(LocalDate day, int prescriptionCount) {
+        this.day = day;
+        this.prescriptionCount = prescriptionCount;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public int getPrescriptionCount() {
+        return prescriptionCount;
+    }
+
+    public void setPrescriptionCount(int prescriptionCount) {
+        this.prescriptionCount = prescriptionCount;
+    }
+}
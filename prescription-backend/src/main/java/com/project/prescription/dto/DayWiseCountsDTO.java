@@ -0,0 +1,44 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Day-wise counts as two parallel arrays, {@code counts[i]} being the count for {@code days[i]}.
+ * Carries the same data as a list of {@link DayCountDTO} without repeating the keys per day.
+ */
+@Schema(description = "Day-wise prescription counts in columnar form")
+public class DayWiseCountsDTO {
+
+    @Schema(description = "Days that have prescriptions, in ascending order", example = "[\"2025-01-15\", \"2025-01-16\"]")
+    private List<LocalDate> days;
+
+    @Schema(description = "Number of prescriptions on the day at the same position", example = "[7, 3]")
+    private int[] counts;
+
+    public DayWiseCountsDTO() {
+    }
+
+    public DayWiseCountsDTO(List<LocalDate> days, int[] counts) {
+        this.days = days;
+        this.counts = counts;
+    }
+
+    public List<LocalDate> getDays() {
+        return days;
+    }
+
+    public void setDays(List<LocalDate> days) {
+        this.days = days;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(int[] counts) {
+        this.counts = counts;
+    }
+}
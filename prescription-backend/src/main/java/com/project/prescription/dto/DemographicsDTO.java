@@ -0,0 +1,190 @@
+package com.project.prescription.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Patient demographics for a date range; facets that were not requested are omitted")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DemographicsDTO {
+
+    @Schema(description = "First day of the range", example = "2025-01-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Last day of the range", example = "2025-03-31")
+    private LocalDate endDate;
+
+    @Schema(description = "Prescriptions in the range", example = "1250")
+    private long total;
+
+    @Schema(description = "Prescriptions per patient age band, from age 0 up to the oldest band seen")
+    private List<AgeBand> ageBands;
+
+    @Schema(description = "Prescriptions per patient gender, every gender listed")
+    private Map<String, Long> genders;
+
+    @Schema(description = "Most frequent diagnoses, ignoring case and accents")
+    private List<DiagnosisCount> diagnoses;
+
+    @Schema(description = "Prescriptions whose diagnosis is outside the listed ones", example = "310")
+    private Long otherDiagnoses;
+
+    @Schema(description = "Prescriptions without a diagnosis", example = "12")
+    private Long unspecifiedDiagnoses;
+
+    @Schema(description = "Number of distinct diagnoses in the range", example = "57")
+    private Integer distinctDiagnoses;
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<AgeBand> getAgeBands() {
+        return ageBands;
+    }
+
+    public void setAgeBands(List<AgeBand> ageBands) {
+        this.ageBands = ageBands;
+    }
+
+    public Map<String, Long> getGenders() {
+        return genders;
+    }
+
+    public void setGenders(Map<String, Long> genders) {
+        this.genders = genders;
+    }
+
+    public List<DiagnosisCount> getDiagnoses() {
+        return diagnoses;
+    }
+
+    public void setDiagnoses(List<DiagnosisCount> diagnoses) {
+        this.diagnoses = diagnoses;
+    }
+
+    public Long getOtherDiagnoses() {
+        return otherDiagnoses;
+    }
+
+    public void setOtherDiagnoses(Long otherDiagnoses) {
+        this.otherDiagnoses = otherDiagnoses;
+    }
+
+    public Long getUnspecifiedDiagnoses() {
+        return unspecifiedDiagnoses;
+    }
+
+    public void setUnspecifiedDiagnoses(Long unspecifiedDiagnoses) {
+        this.unspecifiedDiagnoses = unspecifiedDiagnoses;
+    }
+
+    public Integer getDistinctDiagnoses() {
+        return distinctDiagnoses;
+    }
+
+    public void setDistinctDiagnoses(Integer distinctDiagnoses) {
+        this.distinctDiagnoses = distinctDiagnoses;
+    }
+
+    public static class AgeBand {
+
+        @Schema(description = "Youngest age in the band", example = "20")
+        private int from;
+
+        @Schema(description = "Oldest age in the band", example = "29")
+        private int to;
+
+        @Schema(description = "Prescriptions for patients in the band", example = "214")
+        private long count;
+
+        public AgeBand() {
+        }
+
+        public AgeBand(int from, int to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public void setFrom(int from) {
+            this.from = from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public void setTo(int to) {
+            this.to = to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+    public static class DiagnosisCount {
+
+        @Schema(description = "Diagnosis as first written in the range", example = "Acute pharyngitis")
+        private String diagnosis;
+
+        @Schema(description = "Prescriptions with this diagnosis", example = "88")
+        private long count;
+
+        public DiagnosisCount() {
+        }
+
+        public DiagnosisCount(String diagnosis, long count) {
+            this.diagnosis = diagnosis;
+            this.count = count;
+        }
+
+        public String getDiagnosis() {
+            return diagnosis;
+        }
+
+        public void setDiagnosis(String diagnosis) {
+            this.diagnosis = diagnosis;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Outcome of a bulk prescription import")
+public class ImportResultDTO {
+
+    @Schema(description = "Rows read from the request body", example = "5000")
+    private int received;
+
+    @Schema(description = "Rows written to the database", example = "4998")
+    private int imported;
+
+    @Schema(description = "Rows rejected", example = "2")
+    private int failed;
+
+    @Schema(description = "Time spent importing in milliseconds", example = "850")
+    private long elapsedMs;
+
+    @Schema(description = "Import throughput", example = "5880.0")
+    private double rowsPerSecond;
+
+    @Schema(description = "Per-row errors, capped by the server")
+    private List<RowError> errors = new ArrayList<>();
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    @Schema(description = "Validation or parse error for one input row")
+    public static class RowError {
+
+        @Schema(description = "1-based position of the row in the request", example = "17")
+        private int row;
+
+        @Schema(description = "Field name to message, or row for errors not tied to a field")
+        private Map<String, String> errors;
+
+        public RowError() {
+        }
+
+        public RowError(int row, Map<String, String> errors) {
+            this.row = row;
+            this.errors = errors;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public Map<String, String> getErrors() {
+            return errors;
+        }
+
+        public void setErrors(Map<String, String> errors) {
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "How often a medicine was prescribed in a date range")
+public class MedicineUsageDTO {
+
+    @Schema(description = "Medicine dictionary id", example = "3")
+    private Integer medicineId;
+
+    @Schema(description = "Medicine name", example = "Amoxicillin")
+    private String name;
+
+    @Schema(description = "Number of prescriptions that include the medicine", example = "42")
+    private long prescriptions;
+
+    @Schema(description = "Number of medicine lines, counting repeats within a prescription", example = "43")
+    private long lines;
+
+    public MedicineUsageDTO() {
+    }
+
+    public MedicineUsageDTO(Integer medicineId, String name, long prescriptions, long lines) {
+        this.medicineId = medicineId;
+        this.name = name;
+        this.prescriptions = prescriptions;
+        this.lines = lines;
+    }
+
+    public Integer getMedicineId() {
+        return medicineId;
+    }
+
+    public void setMedicineId(Integer medicineId) {
+        this.medicineId = medicineId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getPrescriptions() {
+        return prescriptions;
+    }
+
+    public void setPrescriptions(long prescriptions) {
+        this.prescriptions = prescriptions;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+}
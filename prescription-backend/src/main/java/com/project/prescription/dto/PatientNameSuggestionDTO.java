@@ -0,0 +1,37 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Patient name matching an autocomplete prefix")
+public class PatientNameSuggestionDTO {
+
+    @Schema(description = "Patient name as most recently written", example = "John Doe")
+    private String name;
+
+    @Schema(description = "Number of prescriptions for this name", example = "4")
+    private long visits;
+
+    public PatientNameSuggestionDTO() {
+    }
+
+    public PatientNameSuggestionDTO(String name, long visits) {
+        this.name = name;
+        this.visits = visits;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getVisits() {
+        return visits;
+    }
+
+    public void setVisits(long visits) {
+        this.visits = visits;
+    }
+}
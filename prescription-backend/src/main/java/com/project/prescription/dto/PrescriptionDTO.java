@@ -38,9 +38,34 @@ public class PrescriptionDTO {
     @Future(message = "Next visit date must be in the future")
     private LocalDate nextVisitDate;
 
+    @Schema(description = "Version the data was read at; send it back on update to reject the change if someone else saved first", example = "3")
+    private Long version;
+
     public PrescriptionDTO() {
     }
 
+    public PrescriptionDTO(Long id, LocalDate prescriptionDate, String patientName, Integer patientAge,
+                           Prescription.Gender patientGender, String diagnosis, String medicines,
+                           LocalDate nextVisitDate, Long version) {
+        this.id = id;
+        this.prescriptionDate = prescriptionDate;
+        this.patientName = patientName;
+        this.patientAge = patientAge;
+        this.patientGender = patientGender;
+        this.diagnosis = diagnosis;
+        this.medicines = medicines;
+        this.nextVisitDate = nextVisitDate;
+        this.version = version;
+    }
+
+    /**
+     * Summary row, without the diagnosis and medicines text.
+     */
+    public PrescriptionDTO(Long id, LocalDate prescriptionDate, String patientName, Integer patientAge,
+                           Prescription.Gender patientGender, LocalDate nextVisitDate, Long version) {
+        this(id, prescriptionDate, patientName, patientAge, patientGender, null, null, nextVisitDate, version);
+    }
+
     public PrescriptionDTO(Prescription prescription) {
         this.id = prescription.getId();
         this.prescriptionDate = prescription.getPrescriptionDate();
@@ -50,6 +75,7 @@ public class PrescriptionDTO {
         this.diagnosis = prescription.getDiagnosis();
         this.medicines = prescription.getMedicines();
         this.nextVisitDate = prescription.getNextVisitDate();
+        this.version = prescription.getVersion();
     }
     public Long getId() {
         return id;
@@ -115,6 +141,14 @@ public class PrescriptionDTO {
         this.nextVisitDate = nextVisitDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Prescription toEntity() {
         Prescription prescription = new Prescription();
         prescription.setId(this.id);
@@ -0,0 +1,63 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of prescriptions with a continuation cursor")
+public class PrescriptionPageDTO {
+
+    @Schema(description = "Prescriptions in this page, ordered by date then id")
+    private List<PrescriptionDTO> items;
+
+    @Schema(description = "Opaque cursor to pass back for the next page, null when there are no more rows")
+    private String nextCursor;
+
+    @Schema(description = "Whether more rows exist after this page", example = "true")
+    private boolean hasMore;
+
+    @Schema(description = "Effective page size applied by the server", example = "50")
+    private int size;
+
+    public PrescriptionPageDTO() {
+    }
+
+    public PrescriptionPageDTO(List<PrescriptionDTO> items, String nextCursor, boolean hasMore, int size) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = size;
+    }
+
+    public List<PrescriptionDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PrescriptionDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,230 @@
+package com.project.prescription.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.project.prescription.entity.Prescription;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Partial update of a prescription. Only the properties present in the request body are
+ * changed; a property sent as null clears it. Jackson only calls the setters of present
+ * properties, so each setter records its field.
+ */
+@Schema(description = "Partial prescription update; properties left out are not changed")
+public class PrescriptionPatchDTO {
+
+    public enum Field {
+        PRESCRIPTION_DATE, PATIENT_NAME, PATIENT_AGE, PATIENT_GENDER, DIAGNOSIS, MEDICINES, NEXT_VISIT_DATE
+    }
+
+    // Fields the day-wise counts, medicine lines, search index or name index are derived from
+    private static final Set<Field> INDEXED = EnumSet.of(Field.PRESCRIPTION_DATE, Field.PATIENT_NAME,
+            Field.DIAGNOSIS, Field.MEDICINES);
+
+    @Schema(description = "Version the change is based on, as returned by the last read", example = "3",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Version is mandatory")
+    private Long version;
+
+    @Schema(description = "Date of prescription", example = "2025-01-15")
+    @PastOrPresent(message = "Prescription date cannot be in the future")
+    private LocalDate prescriptionDate;
+
+    @Schema(description = "Patient name", example = "John Doe")
+    @Size(min = 1, max = 255, message = "Patient name must be between 1 and 255 characters")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Patient name is mandatory")
+    private String patientName;
+
+    @Schema(description = "Patient age", example = "35")
+    @Min(value = 0, message = "Age must be 0 or greater")
+    @Max(value = 150, message = "Age must be 150 or less")
+    private Integer patientAge;
+
+    @Schema(description = "Patient gender", example = "MALE")
+    private Prescription.Gender patientGender;
+
+    private String diagnosis;
+
+    private String medicines;
+
+    @Future(message = "Next visit date must be in the future")
+    private LocalDate nextVisitDate;
+
+    @JsonIgnore
+    private final Set<Field> fields = EnumSet.noneOf(Field.class);
+
+    /**
+     * The fields of {@code target} that differ from {@code current}, as a patch based on {@code current}'s version.
+     */
+    public static PrescriptionPatchDTO between(PrescriptionDTO current, PrescriptionDTO target) {
+        PrescriptionPatchDTO patch = new PrescriptionPatchDTO();
+        patch.setVersion(current.getVersion());
+        patch.setPrescriptionDate(target.getPrescriptionDate());
+        patch.setPatientName(target.getPatientName());
+        patch.setPatientAge(target.getPatientAge());
+        patch.setPatientGender(target.getPatientGender());
+        patch.setDiagnosis(target.getDiagnosis());
+        patch.setMedicines(target.getMedicines());
+        patch.setNextVisitDate(target.getNextVisitDate());
+        patch.retainChanges(current);
+        return patch;
+    }
+
+    /**
+     * Drops the fields whose value equals the one in {@code current}.
+     */
+    public void retainChanges(PrescriptionDTO current) {
+        fields.removeIf(field -> Objects.equals(valueOf(field), valueOf(field, current)));
+    }
+
+    /**
+     * {@code current} with this patch applied.
+     */
+    public PrescriptionDTO applyTo(PrescriptionDTO current) {
+        return new PrescriptionDTO(current.getId(),
+                has(Field.PRESCRIPTION_DATE) ? prescriptionDate : current.getPrescriptionDate(),
+                has(Field.PATIENT_NAME) ? patientName : current.getPatientName(),
+                has(Field.PATIENT_AGE) ? patientAge : current.getPatientAge(),
+                has(Field.PATIENT_GENDER) ? patientGender : current.getPatientGender(),
+                has(Field.DIAGNOSIS) ? diagnosis : current.getDiagnosis(),
+                has(Field.MEDICINES) ? medicines : current.getMedicines(),
+                has(Field.NEXT_VISIT_DATE) ? nextVisitDate : current.getNextVisitDate(),
+                current.getVersion());
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    @JsonIgnore
+    public Set<Field> getFields() {
+        return fields;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Whether applying the patch means rederiving counts or indexes, which needs the previous values.
+     */
+    @JsonIgnore
+    public boolean isIndexed() {
+        for (Field field : fields) {
+            if (INDEXED.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Prescription date, patient name, age and gender cannot be cleared")
+    public boolean isMandatoryFieldsKept() {
+        return !(has(Field.PRESCRIPTION_DATE) && prescriptionDate == null)
+                && !(has(Field.PATIENT_NAME) && patientName == null)
+                && !(has(Field.PATIENT_AGE) && patientAge == null)
+                && !(has(Field.PATIENT_GENDER) && patientGender == null);
+    }
+
+    public Object valueOf(Field field) {
+        return switch (field) {
+            case PRESCRIPTION_DATE -> prescriptionDate;
+            case PATIENT_NAME -> patientName;
+            case PATIENT_AGE -> patientAge;
+            case PATIENT_GENDER -> patientGender;
+            case DIAGNOSIS -> diagnosis;
+            case MEDICINES -> medicines;
+            case NEXT_VISIT_DATE -> nextVisitDate;
+        };
+    }
+
+    private static Object valueOf(Field field, PrescriptionDTO dto) {
+        return switch (field) {
+            case PRESCRIPTION_DATE -> dto.getPrescriptionDate();
+            case PATIENT_NAME -> dto.getPatientName();
+            case PATIENT_AGE -> dto.getPatientAge();
+            case PATIENT_GENDER -> dto.getPatientGender();
+            case DIAGNOSIS -> dto.getDiagnosis();
+            case MEDICINES -> dto.getMedicines();
+            case NEXT_VISIT_DATE -> dto.getNextVisitDate();
+        };
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDate getPrescriptionDate() {
+        return prescriptionDate;
+    }
+
+    public void setPrescriptionDate(LocalDate prescriptionDate) {
+        this.prescriptionDate = prescriptionDate;
+        fields.add(Field.PRESCRIPTION_DATE);
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+        fields.add(Field.PATIENT_NAME);
+    }
+
+    public Integer getPatientAge() {
+        return patientAge;
+    }
+
+    public void setPatientAge(Integer patientAge) {
+        this.patientAge = patientAge;
+        fields.add(Field.PATIENT_AGE);
+    }
+
+    public Prescription.Gender getPatientGender() {
+        return patientGender;
+    }
+
+    public void setPatientGender(Prescription.Gender patientGender) {
+        this.patientGender = patientGender;
+        fields.add(Field.PATIENT_GENDER);
+    }
+
+    public String getDiagnosis() {
+        return diagnosis;
+    }
+
+    public void setDiagnosis(String diagnosis) {
+        this.diagnosis = diagnosis;
+        fields.add(Field.DIAGNOSIS);
+    }
+
+    public String getMedicines() {
+        return medicines;
+    }
+
+    public void setMedicines(String medicines) {
+        this.medicines = medicines;
+        fields.add(Field.MEDICINES);
+    }
+
+    public LocalDate getNextVisitDate() {
+        return nextVisitDate;
+    }
+
+    public void setNextVisitDate(LocalDate nextVisitDate) {
+        this.nextVisitDate = nextVisitDate;
+        fields.add(Field.NEXT_VISIT_DATE);
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.prescription.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The {@link PrescriptionDTO} properties a response carries, from the {@code fields}
+ * parameter: property names and the {@code summary} and {@code detail} shorthands,
+ * comma-separated, e.g. {@code fields=summary,diagnosis}. The id is always included.
+ *
+ * Only a view with diagnosis or medicines reads those text columns; the other properties
+ * are fixed-size and are left out when writing the response instead.
+ */
+public final class PrescriptionView {
+
+    public static final String FILTER = "prescriptionView";
+
+    private static final List<String> SUMMARY_FIELDS = List.of("id", "prescriptionDate", "patientName", "patientAge",
+            "patientGender", "nextVisitDate", "version");
+    private static final List<String> TEXT_FIELDS = List.of("diagnosis", "medicines");
+
+    public static final PrescriptionView SUMMARY = new PrescriptionView(new TreeSet<>(SUMMARY_FIELDS));
+    public static final PrescriptionView DETAIL = SUMMARY.with(TEXT_FIELDS);
+
+    private final Set<String> fields;
+    private final FilterProvider filters;
+
+    private PrescriptionView(Set<String> fields) {
+        this.fields = fields;
+        this.filters = new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    public static PrescriptionView parse(String fields, PrescriptionView defaultView) {
+        if (fields == null || fields.isBlank()) {
+            return defaultView;
+        }
+        Set<String> parsed = new TreeSet<>();
+        parsed.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "summary" -> parsed.addAll(SUMMARY.fields);
+                case "detail" -> parsed.addAll(DETAIL.fields);
+                default -> {
+                    if (!DETAIL.fields.contains(name)) {
+                        throw new RuntimeException("Unknown field: " + name);
+                    }
+                    parsed.add(name);
+                }
+            }
+        }
+        return new PrescriptionView(parsed);
+    }
+
+    private PrescriptionView with(List<String> more) {
+        Set<String> combined = new TreeSet<>(fields);
+        combined.addAll(more);
+        return new PrescriptionView(combined);
+    }
+
+    /**
+     * Whether the diagnosis or medicines text has to be read.
+     */
+    public boolean includesText() {
+        for (String field : TEXT_FIELDS) {
+            if (fields.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Jackson filters that keep only this view's properties of each {@link PrescriptionDTO}.
+     */
+    public FilterProvider getFilters() {
+        return filters;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+
+    /**
+     * Mix-in that puts {@link PrescriptionDTO} under the view filter, registered on the
+     * application's mappers. Anything written without a view keeps every property.
+     */
+    @JsonFilter(FILTER)
+    public interface FilterMixin {
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.prescription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Users and rows held by one shard")
+public class ShardStatsDTO {
+
+    @Schema(description = "Shard number; shard 0 also holds the directory", example = "1")
+    private int shard;
+
+    @Schema(description = "Users assigned to the shard", example = "120")
+    private long assignedUsers;
+
+    @Schema(description = "Users with at least one prescription in the shard", example = "118")
+    private long usersWithData;
+
+    @Schema(description = "Prescriptions stored in the shard", example = "250000")
+    private long prescriptions;
+
+    @Schema(description = "Parsed medicine lines stored in the shard", example = "610000")
+    private long medicineLines;
+
+    public ShardStatsDTO() {
+    }
+
+    public ShardStatsDTO(int shard, long assignedUsers, long usersWithData, long prescriptions, long medicineLines) {
+        this.shard = shard;
+        this.assignedUsers = assignedUsers;
+        this.usersWithData = usersWithData;
+        this.prescriptions = prescriptions;
+        this.medicineLines = medicineLines;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public long getAssignedUsers() {
+        return assignedUsers;
+    }
+
+    public void setAssignedUsers(long assignedUsers) {
+        this.assignedUsers = assignedUsers;
+    }
+
+    public long getUsersWithData() {
+        return usersWithData;
+    }
+
+    public void setUsersWithData(long usersWithData) {
+        this.usersWithData = usersWithData;
+    }
+
+    public long getPrescriptions() {
+        return prescriptions;
+    }
+
+    public void setPrescriptions(long prescriptions) {
+        this.prescriptions = prescriptions;
+    }
+
+    public long getMedicineLines() {
+        return medicineLines;
+    }
+
+    public void setMedicineLines(long medicineLines) {
+        this.medicineLines = medicineLines;
+    }
+}
@@ -0,0 +1,66 @@
+package com.project.prescription.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_prescription_counts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_counts_user_day", columnNames = {"user_id", "count_date"})
+})
+public class DailyPrescriptionCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "count_date", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long prescriptionCount;
+
+    public DailyPrescriptionCount() {
+    }
+
+    public DailyPrescriptionCount(User user, LocalDate day, long prescriptionCount) {
+        this.user = user;
+        this.day = day;
+        this.prescriptionCount = prescriptionCount;
+    }
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getPrescriptionCount() {
+        return prescriptionCount;
+    }
+
+    public void setPrescriptionCount(long prescriptionCount) {
+        this.prescriptionCount = prescriptionCount;
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.prescription.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Shared dictionary of medicine names. Prescription line items refer to a medicine by
+ * its integer id, so reports group on a small key instead of free text. Rows are only
+ * ever inserted, so the names reports look up by id are cached read-only.
+ */
+@Entity
+@Table(name = "medicines", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_medicines_name", columnNames = {"name"})
+})
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "medicines")
+public class Medicine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Normalized form used for lookups: lower case, no accents, single spaces
+    @Column(nullable = false, length = 120)
+    private String name;
+
+    // Spelling as first written
+    @Column(nullable = false, length = 120)
+    private String displayName;
+
+    public Medicine() {
+    }
+
+    public Medicine(String name, String displayName) {
+        this.name = name;
+        this.displayName = displayName;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+}
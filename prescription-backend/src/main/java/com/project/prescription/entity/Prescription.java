@@ -9,11 +9,17 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "prescriptions")
+@Table(name = "prescriptions", indexes = {
+        // Serves every per-user query: equality on user_id, range/order on prescription_date,
+        // id as keyset tie-breaker. The day-wise count is answered from the index alone.
+        @Index(name = "idx_prescriptions_user_date", columnList = "user_id, prescription_date, id")
+})
 public class Prescription {
 
+    // Pooled sequence so Hibernate can assign ids up front and batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescriptions_seq")
+    @SequenceGenerator(name = "prescriptions_seq", sequenceName = "prescriptions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Prescription date is mandatory")
@@ -48,6 +54,10 @@ public class Prescription {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Bumped by every update; writes carry the version they were based on, so a stale one is rejected
+    @Version
+    private Long version;
+
     public Prescription() {
     }
     public Long getId() {
@@ -122,6 +132,14 @@ public class Prescription {
         this.user = user;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public enum Gender {
         MALE, FEMALE, OTHER
     }
@@ -0,0 +1,126 @@
+package com.project.prescription.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * One medicine line parsed out of {@link Prescription#getMedicines()}. The owner and
+ * prescription date are copied from the prescription so medicine reports filter and
+ * group on this table alone.
+ */
+@Entity
+@Table(name = "prescription_medicines", indexes = {
+        // Top-medicines report: equality on user_id, range on prescription_date, grouped by medicine_id
+        @Index(name = "idx_prescription_medicines_user_date", columnList = "user_id, prescription_date, medicine_id"),
+        @Index(name = "idx_prescription_medicines_prescription", columnList = "prescription_id")
+})
+public class PrescriptionMedicine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescription_medicines_seq")
+    @SequenceGenerator(name = "prescription_medicines_seq", sequenceName = "prescription_medicines_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prescription_id", nullable = false)
+    private Prescription prescription;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "prescription_date", nullable = false)
+    private LocalDate prescriptionDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "medicine_id", nullable = false)
+    private Medicine medicine;
+
+    // Order of the line within the prescription text
+    @Column(nullable = false)
+    private int position;
+
+    @Column(length = 40)
+    private String strength;
+
+    @Column(length = 40)
+    private String frequency;
+
+    private Integer durationDays;
+
+    public PrescriptionMedicine() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Prescription getPrescription() {
+        return prescription;
+    }
+
+    public void setPrescription(Prescription prescription) {
+        this.prescription = prescription;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDate getPrescriptionDate() {
+        return prescriptionDate;
+    }
+
+    public void setPrescriptionDate(LocalDate prescriptionDate) {
+        this.prescriptionDate = prescriptionDate;
+    }
+
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    public void setMedicine(Medicine medicine) {
+        this.medicine = medicine;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public String getStrength() {
+        return strength;
+    }
+
+    public void setStrength(String strength) {
+        this.strength = strength;
+    }
+
+    public String getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(String frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getDurationDays() {
+        return durationDays;
+    }
+
+    public void setDurationDays(Integer durationDays) {
+        this.durationDays = durationDays;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.prescription.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One login session's chain of refresh tokens. Only the hash of the newest token is kept:
+ * rotating replaces it, and presenting any older token of the family is treated as theft
+ * and revokes the whole family.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_token_families_user", columnList = "user_id")
+})
+public class RefreshTokenFamily {
+
+    // Random, unguessable identifier; also the first part of every token in the family
+    @Id
+    @Column(length = 22)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Base64 SHA-256 of the current token's secret part
+    @Column(nullable = false, length = 44)
+    private String currentHash;
+
+    @Column(nullable = false)
+    private int generation;
+
+    @Column(nullable = false)
+    private Instant lastUsedAt;
+
+    // Absolute end of the session, however often it is refreshed
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    public RefreshTokenFamily() {
+    }
+
+    public RefreshTokenFamily(String id, User user, String currentHash, Instant lastUsedAt, Instant expiresAt) {
+        this.id = id;
+        this.user = user;
+        this.currentHash = currentHash;
+        this.lastUsedAt = lastUsedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getCurrentHash() {
+        return currentHash;
+    }
+
+    public void setCurrentHash(String currentHash) {
+        this.currentHash = currentHash;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    public Instant getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(Instant lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+}
@@ -0,0 +1,44 @@
+package com.project.prescription.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * The shard holding a user's prescription data. Kept in the directory (shard 0) and
+ * written when the user is first routed, so later changes to the shard count or the
+ * hash do not move anyone implicitly.
+ */
+@Entity
+@Table(name = "user_shards")
+public class UserShard {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    public UserShard() {
+    }
+
+    public UserShard(Long userId, int shard) {
+        this.userId = userId;
+        this.shard = shard;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+}
@@ -0,0 +1,39 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.DailyPrescriptionCount;
+import com.project.prescription.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyPrescriptionCountRepository extends JpaRepository<DailyPrescriptionCount, Long> {
+    
+    @Modifying
+    @Query("UPDATE DailyPrescriptionCount d SET d.prescriptionCount = d.prescriptionCount + :delta WHERE d.user = :user AND d.day = :day")
+    int addToCount(@Param("user") User user, @Param("day") LocalDate day, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("DELETE FROM DailyPrescriptionCount d WHERE d.user = :user AND d.day = :day AND d.prescriptionCount <= 0")
+    int deleteIfEmpty(@Param("user") User user, @Param("day") LocalDate day);
+    
+    @Modifying
+    @Query("DELETE FROM DailyPrescriptionCount d WHERE d.user = :user")
+    int deleteByUser(@Param("user") User user);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reports")
+    })
+    // Rows that have dropped to zero are skipped
+    @Query("SELECT d.day, d.prescriptionCount FROM DailyPrescriptionCount d WHERE d.user = :user AND d.day BETWEEN :startDate AND :endDate AND d.prescriptionCount > 0 ORDER BY d.day")
+    List<Object[]> findCountsByDay(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,13 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.Medicine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MedicineRepository extends JpaRepository<Medicine, Integer> {
+    
+    Optional<Medicine> findByName(String name);
+}
@@ -0,0 +1,41 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.PrescriptionMedicine;
+import com.project.prescription.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PrescriptionMedicineRepository extends JpaRepository<PrescriptionMedicine, Long> {
+    
+    @Modifying
+    @Query("DELETE FROM PrescriptionMedicine pm WHERE pm.prescription.id = :prescriptionId")
+    int deleteByPrescriptionId(@Param("prescriptionId") Long prescriptionId);
+    
+    @Modifying
+    @Query("DELETE FROM PrescriptionMedicine pm WHERE pm.user = :user")
+    int deleteByUser(@Param("user") User user);
+    
+    /**
+     * Medicine id, number of line items and number of distinct prescriptions, most prescribed first.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reports")
+    })
+    @Query("SELECT pm.medicine.id, COUNT(pm), COUNT(DISTINCT pm.prescription.id) FROM PrescriptionMedicine pm "
+            + "WHERE pm.user = :user AND pm.prescriptionDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY pm.medicine.id ORDER BY COUNT(DISTINCT pm.prescription.id) DESC, pm.medicine.id")
+    List<Object[]> findTopMedicines(@Param("user") User user, @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate, Limit limit);
+}
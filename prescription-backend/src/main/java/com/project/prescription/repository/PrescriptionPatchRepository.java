@@ -0,0 +1,18 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.dto.PrescriptionPatchDTO;
+import com.project.prescription.entity.User;
+
+/**
+ * Partial updates of prescriptions, mixed into {@link PrescriptionRepository}.
+ */
+public interface PrescriptionPatchRepository {
+
+    /**
+     * Writes the fields present in {@code patch} and bumps the version, in one UPDATE that
+     * only matches the prescription if it belongs to {@code user} and is still at {@code version}.
+     *
+     * @return number of rows updated: 1, or 0 if the prescription is missing, not the user's or stale
+     */
+    int patch(Long id, User user, long version, PrescriptionPatchDTO patch);
+}
@@ -0,0 +1,43 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.dto.PrescriptionPatchDTO;
+import com.project.prescription.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+
+class PrescriptionPatchRepositoryImpl implements PrescriptionPatchRepository {
+
+    private static final Map<PrescriptionPatchDTO.Field, String> ATTRIBUTES = Map.of(
+            PrescriptionPatchDTO.Field.PRESCRIPTION_DATE, "prescriptionDate",
+            PrescriptionPatchDTO.Field.PATIENT_NAME, "patientName",
+            PrescriptionPatchDTO.Field.PATIENT_AGE, "patientAge",
+            PrescriptionPatchDTO.Field.PATIENT_GENDER, "patientGender",
+            PrescriptionPatchDTO.Field.DIAGNOSIS, "diagnosis",
+            PrescriptionPatchDTO.Field.MEDICINES, "medicines",
+            PrescriptionPatchDTO.Field.NEXT_VISIT_DATE, "nextVisitDate");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, User user, long version, PrescriptionPatchDTO patch) {
+        StringBuilder jpql = new StringBuilder("UPDATE Prescription p SET ");
+        for (PrescriptionPatchDTO.Field field : patch.getFields()) {
+            String attribute = ATTRIBUTES.get(field);
+            jpql.append("p.").append(attribute).append(" = :").append(attribute).append(", ");
+        }
+        jpql.append("p.version = p.version + 1 WHERE p.id = :id AND p.user = :user AND p.version = :version");
+
+        Query query = entityManager.createQuery(jpql.toString());
+        for (PrescriptionPatchDTO.Field field : patch.getFields()) {
+            query.setParameter(ATTRIBUTES.get(field), patch.valueOf(field));
+        }
+        return query.setParameter("id", id)
+                .setParameter("user", user)
+                .setParameter("version", version)
+                .executeUpdate();
+    }
+}
@@ -1,17 +1,39 @@
 package com.project.prescription.repository;
 
+import com.project.prescription.dto.PrescriptionDTO;
 import com.project.prescription.entity.Prescription;
 import com.project.prescription.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+public interface PrescriptionRepository extends JpaRepository<Prescription, Long>, PrescriptionPatchRepository {
+    
+    /**
+     * Constructor projection shared by the read queries: rows go straight into
+     * DTOs without creating managed entities or dirty-checking snapshots.
+     */
+    String DTO_SELECT = "SELECT new com.project.prescription.dto.PrescriptionDTO(p.id, p.prescriptionDate, p.patientName, "
+            + "p.patientAge, p.patientGender, p.diagnosis, p.medicines, p.nextVisitDate, p.version) FROM Prescription p ";
+    
+    /**
+     * Like {@link #DTO_SELECT} without the diagnosis and medicines text, for list views.
+     */
+    String SUMMARY_SELECT = "SELECT new com.project.prescription.dto.PrescriptionDTO(p.id, p.prescriptionDate, p.patientName, "
+            + "p.patientAge, p.patientGender, p.nextVisitDate, p.version) FROM Prescription p ";
     
     List<Prescription> findByUser(User user);
     
@@ -19,7 +41,95 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     
     List<Prescription> findByUserAndPrescriptionDateBetween(User user, LocalDate startDate, LocalDate endDate);
     
+    @Query(DTO_SELECT + "WHERE p.user = :user")
+    List<PrescriptionDTO> findDtoByUser(@Param("user") User user);
+    
+    @Query(DTO_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate")
+    List<PrescriptionDTO> findDtoByUserAndPrescriptionDateBetween(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate")
+    List<PrescriptionDTO> findSummaryByUserAndPrescriptionDateBetween(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(DTO_SELECT + "WHERE p.id = :id AND p.user = :user")
+    Optional<PrescriptionDTO> findDtoByIdAndUser(@Param("id") Long id, @Param("user") User user);
+    
+    @Query("SELECT p.version FROM Prescription p WHERE p.id = :id AND p.user = :user")
+    Optional<Long> findVersionByIdAndUser(@Param("id") Long id, @Param("user") User user);
+    
+    /**
+     * Deletes the prescription only if it belongs to {@code user} and is still at {@code version}.
+     */
+    @Modifying
+    @Query("DELETE FROM Prescription p WHERE p.id = :id AND p.user = :user AND p.version = :version")
+    int deleteByIdAndUserAndVersion(@Param("id") Long id, @Param("user") User user, @Param("version") Long version);
+    
+    @Query(DTO_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate ORDER BY p.prescriptionDate, p.id")
+    List<PrescriptionDTO> findPage(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Limit limit);
+    
+    @Query(DTO_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate AND (p.prescriptionDate > :afterDate OR (p.prescriptionDate = :afterDate AND p.id > :afterId)) ORDER BY p.prescriptionDate, p.id")
+    List<PrescriptionDTO> findPageAfter(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate ORDER BY p.prescriptionDate, p.id")
+    List<PrescriptionDTO> findSummaryPage(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate AND (p.prescriptionDate > :afterDate OR (p.prescriptionDate = :afterDate AND p.id > :afterId)) ORDER BY p.prescriptionDate, p.id")
+    List<PrescriptionDTO> findSummaryPageAfter(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
+    
+    @Query(DTO_SELECT + "WHERE p.user = :user AND p.id IN :ids ORDER BY p.prescriptionDate DESC, p.id DESC")
+    List<PrescriptionDTO> findDtoByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.user = :user AND p.id IN :ids ORDER BY p.prescriptionDate DESC, p.id DESC")
+    List<PrescriptionDTO> findSummaryByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+    
+    /**
+     * Id, owner id, date, diagnosis and medicines of every prescription, for rebuilding the search index.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, p.user.id, p.prescriptionDate, p.diagnosis, p.medicines FROM Prescription p")
+    Stream<Object[]> streamSearchText();
+    
+    /**
+     * Owner id, patient name and number of prescriptions per distinct name, for rebuilding the autocomplete index.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.user.id, p.patientName, COUNT(p) FROM Prescription p GROUP BY p.user.id, p.patientName")
+    Stream<Object[]> streamPatientNameCounts();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Prescription p WHERE p.user = :user ORDER BY p.prescriptionDate, p.id")
+    Stream<Prescription> streamByUser(@Param("user") User user);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Prescription p WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate ORDER BY p.prescriptionDate, p.id")
+    Stream<Prescription> streamByUserAndPrescriptionDateBetween(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.patientAge, p.patientGender, p.diagnosis FROM Prescription p WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate")
+    Stream<Object[]> streamDemographics(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reports")
+    })
+    @Query("SELECT p.patientAge, p.patientGender, COUNT(p) FROM Prescription p WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate GROUP BY p.patientAge, p.patientGender")
+    List<Object[]> countByAgeAndGender(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
     @Query("SELECT p.prescriptionDate, COUNT(p) FROM Prescription p WHERE p.user = :user AND p.prescriptionDate BETWEEN :startDate AND :endDate GROUP BY p.prescriptionDate")
     List<Object[]> countPrescriptionsByDate(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT p.prescriptionDate, COUNT(p) FROM Prescription p WHERE p.user = :user GROUP BY p.prescriptionDate")
+    List<Object[]> countAllPrescriptionsByDate(@Param("user") User user);
 }
 
@@ -0,0 +1,40 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.RefreshTokenFamily;
+import com.project.prescription.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+    
+    @Query("SELECT f FROM RefreshTokenFamily f JOIN FETCH f.user WHERE f.id = :id")
+    Optional<RefreshTokenFamily> findWithUserById(@Param("id") String id);
+    
+    /**
+     * Compare-and-set rotation: succeeds only if the presented hash is still the current
+     * one, so two concurrent refreshes with the same token cannot both win.
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.currentHash = :newHash, f.generation = f.generation + 1, f.lastUsedAt = :now "
+            + "WHERE f.id = :id AND f.currentHash = :presentedHash AND f.revoked = false")
+    int rotate(@Param("id") String id, @Param("presentedHash") String presentedHash,
+               @Param("newHash") String newHash, @Param("now") Instant now);
+    
+    @Query("SELECT COUNT(f) > 0 FROM RefreshTokenFamily f WHERE f.id = :id AND f.currentHash = :hash AND f.revoked = false")
+    boolean isCurrent(@Param("id") String id, @Param("hash") String hash);
+    
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.id = :id")
+    int revoke(@Param("id") String id);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.user = :user AND f.expiresAt < :now")
+    int deleteExpired(@Param("user") User user, @Param("now") Instant now);
+}
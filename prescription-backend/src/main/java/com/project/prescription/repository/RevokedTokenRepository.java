@@ -0,0 +1,25 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Revocations that still matter: (jti, expiresAt) of tokens that have not expired yet.
+     */
+    @Query("SELECT r.jti, r.expiresAt FROM RevokedToken r WHERE r.expiresAt > :now")
+    Stream<Object[]> streamActive(@Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
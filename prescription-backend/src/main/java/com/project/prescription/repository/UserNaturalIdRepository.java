@@ -0,0 +1,17 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Username lookups through Hibernate's natural-id cache, mixed into {@link UserRepository}.
+ * A derived query would always go to the database; these answer from the second-level
+ * cache once a user has been seen.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+}
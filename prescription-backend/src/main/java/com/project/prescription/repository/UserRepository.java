@@ -4,13 +4,6 @@ import com.project.prescription.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    
-    Optional<User> findByUsername(String username);
-    
-    boolean existsByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 }
-
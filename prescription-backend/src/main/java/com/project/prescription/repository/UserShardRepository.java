@@ -0,0 +1,18 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.UserShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserShardRepository extends JpaRepository<UserShard, Long> {
+
+    /**
+     * Shard and number of users assigned to it.
+     */
+    @Query("SELECT s.shard, COUNT(s) FROM UserShard s GROUP BY s.shard")
+    List<Object[]> countUsersByShard();
+}
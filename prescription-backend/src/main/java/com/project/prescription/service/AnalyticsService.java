@@ -0,0 +1,190 @@
+package com.project.prescription.service;
+
+import com.project.prescription.dto.DemographicsDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Computes every requested demographic facet in a single pass over a date range.
+ * Without the diagnosis facet the database does the work in one grouped query over
+ * (age, gender); with it, the range is streamed once into primitive counters so the
+ * TEXT column is read once rather than once per facet.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AnalyticsService {
+
+    public enum Facet {
+        AGE, GENDER, DIAGNOSIS;
+
+        public static Set<Facet> parse(String facets) {
+            if (facets == null || facets.isBlank()) {
+                return EnumSet.allOf(Facet.class);
+            }
+            Set<Facet> parsed = EnumSet.noneOf(Facet.class);
+            for (String facet : facets.split(",")) {
+                try {
+                    parsed.add(valueOf(facet.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new RuntimeException("Unknown facet: " + facet.trim());
+                }
+            }
+            return parsed;
+        }
+    }
+
+    // Matches the @Max on Prescription.patientAge
+    private static final int MAX_AGE = 150;
+
+    private final PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    public AnalyticsService(PrescriptionRepository prescriptionRepository) {
+        this.prescriptionRepository = prescriptionRepository;
+    }
+
+    public DemographicsDTO getDemographics(User user, LocalDate startDate, LocalDate endDate, Set<Facet> facets,
+                                           int ageBandWidth, int topDiagnoses) {
+        long[] byAge = new long[MAX_AGE + 1];
+        long[] byGender = new long[Prescription.Gender.values().length];
+        long total = 0;
+
+        DiagnosisTally diagnoses = null;
+        if (facets.contains(Facet.DIAGNOSIS)) {
+            diagnoses = new DiagnosisTally();
+            try (Stream<Object[]> rows = prescriptionRepository.streamDemographics(user, startDate, endDate)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    byAge[clampAge((Integer) row[0])]++;
+                    byGender[((Prescription.Gender) row[1]).ordinal()]++;
+                    diagnoses.add((String) row[2]);
+                    total++;
+                }
+            }
+        } else {
+            for (Object[] row : prescriptionRepository.countByAgeAndGender(user, startDate, endDate)) {
+                long count = (Long) row[2];
+                byAge[clampAge((Integer) row[0])] += count;
+                byGender[((Prescription.Gender) row[1]).ordinal()] += count;
+                total += count;
+            }
+        }
+
+        DemographicsDTO result = new DemographicsDTO();
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+        result.setTotal(total);
+        if (facets.contains(Facet.AGE)) {
+            result.setAgeBands(toAgeBands(byAge, ageBandWidth));
+        }
+        if (facets.contains(Facet.GENDER)) {
+            Map<String, Long> genders = new LinkedHashMap<>();
+            for (Prescription.Gender gender : Prescription.Gender.values()) {
+                genders.put(gender.name(), byGender[gender.ordinal()]);
+            }
+            result.setGenders(genders);
+        }
+        if (diagnoses != null) {
+            diagnoses.writeTo(result, topDiagnoses);
+        }
+        return result;
+    }
+
+    private static int clampAge(Integer age) {
+        return age == null ? 0 : Math.max(0, Math.min(MAX_AGE, age));
+    }
+
+    private static List<DemographicsDTO.AgeBand> toAgeBands(long[] byAge, int width) {
+        int oldest = -1;
+        for (int age = MAX_AGE; age >= 0; age--) {
+            if (byAge[age] > 0) {
+                oldest = age;
+                break;
+            }
+        }
+        List<DemographicsDTO.AgeBand> bands = new ArrayList<>();
+        for (int from = 0; from <= oldest; from += width) {
+            int to = Math.min(from + width - 1, MAX_AGE);
+            long count = 0;
+            for (int age = from; age <= to; age++) {
+                count += byAge[age];
+            }
+            bands.add(new DemographicsDTO.AgeBand(from, to, count));
+        }
+        return bands;
+    }
+
+    /**
+     * Counts diagnoses by normalized text. Most rows repeat a handful of spellings, so the
+     * raw-to-key mapping is memoized and normalization runs once per distinct spelling.
+     */
+    private static final class DiagnosisTally {
+
+        private final Map<String, String> keysBySpelling = new HashMap<>();
+        private final Map<String, Counter> counters = new HashMap<>();
+        private long unspecified;
+
+        void add(String diagnosis) {
+            if (diagnosis == null || diagnosis.isBlank()) {
+                unspecified++;
+                return;
+            }
+            String key = keysBySpelling.computeIfAbsent(diagnosis, TextNormalizer::normalize);
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                counter = new Counter(diagnosis.trim());
+                counters.put(key, counter);
+            }
+            counter.count++;
+        }
+
+        void writeTo(DemographicsDTO result, int top) {
+            List<Counter> ranked = new ArrayList<>(counters.values());
+            ranked.sort(Comparator.comparingLong((Counter counter) -> counter.count).reversed()
+                    .thenComparing(counter -> counter.display));
+            List<DemographicsDTO.DiagnosisCount> listed = new ArrayList<>(Math.min(top, ranked.size()));
+            long other = 0;
+            for (int i = 0; i < ranked.size(); i++) {
+                Counter counter = ranked.get(i);
+                if (i < top) {
+                    listed.add(new DemographicsDTO.DiagnosisCount(counter.display, counter.count));
+                } else {
+                    other += counter.count;
+                }
+            }
+            result.setDiagnoses(listed);
+            result.setOtherDiagnoses(other);
+            result.setUnspecifiedDiagnoses(unspecified);
+            result.setDistinctDiagnoses(counters.size());
+        }
+
+        private static final class Counter {
+
+            private final String display;
+            private long count;
+
+            private Counter(String display) {
+                this.display = display;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.User;
+import com.project.prescription.util.TransactionCallbacks;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user change counter behind conditional GETs. Every committed write to a user's
+ * prescriptions bumps the user's version, so list and report responses can carry an
+ * ETag derived from it and a poll that finds the version unchanged is answered with
+ * 304 before any query runs.
+ *
+ * Versions live in memory. ETags also carry the process start time, so tags issued
+ * before a restart never match afterwards.
+ */
+@Service
+public class ChangeVersionService {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Bumps the user's version once the current transaction commits.
+     */
+    public void markChanged(User user) {
+        Long userId = user.getId();
+        TransactionCallbacks.afterCommit(() -> versions.compute(userId,
+                (id, current) -> new Version(current == null ? 1 : current.number + 1, System.currentTimeMillis())));
+    }
+
+    /**
+     * Weak ETag for the user's data as of now. {@code variant} holds whatever, besides
+     * the URL, decides the response body, such as a date range defaulted from today.
+     */
+    public String etag(User user, Object... variant) {
+        Version version = versions.get(user.getId());
+        long number = version == null ? 0 : version.number;
+        return "W/\"" + user.getId() + "-" + Long.toString(epoch, 36) + "-" + number
+                + "-" + Integer.toHexString(Arrays.hashCode(variant)) + "\"";
+    }
+
+    /**
+     * Time of the user's last committed change, or process start when there has been none since.
+     */
+    public long lastModified(User user) {
+        Version version = versions.get(user.getId());
+        return version == null ? epoch : version.changedAt;
+    }
+
+    private static final class Version {
+
+        private final long number;
+        private final long changedAt;
+
+        private Version(long number, long changedAt) {
+            this.number = number;
+            this.changedAt = changedAt;
+        }
+    }
+}
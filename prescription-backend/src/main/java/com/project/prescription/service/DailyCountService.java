@@ -0,0 +1,152 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.DailyPrescriptionCount;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.DailyPrescriptionCountRepository;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.repository.UserRepository;
+import com.project.prescription.util.ShardContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the per-user daily prescription counters behind the day-wise report.
+ * Callers invoke it from inside their own write transaction so the rollup and
+ * the prescriptions table always commit together.
+ *
+ * A day's row is created empty the first time it is needed, and counts are only ever added
+ * with an UPDATE. Both run in the caller's transaction on its connection. Two first writes
+ * for the same day race only on creating the empty row: the insert runs inside a savepoint,
+ * so the loser waits for the winner, rolls back to the savepoint on the duplicate key and
+ * adds to the winner's row instead of failing the caller's transaction.
+ */
+@Service
+@Transactional
+public class DailyCountService {
+
+    private static final String INSERT_EMPTY_ROW =
+            "INSERT INTO daily_prescription_counts (user_id, count_date, prescription_count) VALUES (?, ?, 0)";
+
+    private final DailyPrescriptionCountRepository dailyCountRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final UserRepository userRepository;
+    private final ChangeVersionService changeVersions;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate rebuildTransaction;
+    private final JdbcTemplate jdbc;
+
+    @Autowired
+    public DailyCountService(DailyPrescriptionCountRepository dailyCountRepository,
+                             PrescriptionRepository prescriptionRepository,
+                             UserRepository userRepository,
+                             ChangeVersionService changeVersions,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             DataSource dataSource) {
+        this.dailyCountRepository = dailyCountRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.userRepository = userRepository;
+        this.changeVersions = changeVersions;
+        this.shardRouter = shardRouter;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        // Plain JDBC on the transaction's connection, so a duplicate key does not mark the
+        // caller's JPA transaction rollback-only
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    public void increment(User user, LocalDate day) {
+        add(user, day, 1);
+    }
+
+    public void add(User user, LocalDate day, long delta) {
+        if (dailyCountRepository.addToCount(user, day, delta) == 0) {
+            createEmptyRow(user, day);
+            if (dailyCountRepository.addToCount(user, day, delta) == 0) {
+                throw new IllegalStateException("No daily count row for user " + user.getId() + " on " + day);
+            }
+        }
+    }
+
+    private void createEmptyRow(User user, LocalDate day) {
+        try {
+            jdbc.execute((ConnectionCallback<Integer>) connection -> {
+                Savepoint savepoint = connection.setSavepoint();
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_EMPTY_ROW)) {
+                    insert.setLong(1, user.getId());
+                    insert.setObject(2, day);
+                    int rows = insert.executeUpdate();
+                    connection.releaseSavepoint(savepoint);
+                    return rows;
+                } catch (SQLException ex) {
+                    connection.rollback(savepoint);
+                    throw ex;
+                }
+            });
+        } catch (DuplicateKeyException ex) {
+            // Another request created the row first
+        }
+    }
+
+    public void decrement(User user, LocalDate day) {
+        dailyCountRepository.addToCount(user, day, -1);
+        dailyCountRepository.deleteIfEmpty(user, day);
+    }
+
+    public void move(User user, LocalDate fromDay, LocalDate toDay) {
+        if (fromDay.equals(toDay)) {
+            return;
+        }
+        decrement(user, fromDay);
+        increment(user, toDay);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> getCounts(User user, LocalDate startDate, LocalDate endDate) {
+        return dailyCountRepository.findCountsByDay(user, startDate, endDate);
+    }
+
+    /**
+     * Recomputes a user's counters from the prescriptions table, discarding any drift.
+     *
+     * @return number of days with at least one prescription
+     */
+    public int rebuild(User user) {
+        dailyCountRepository.deleteByUser(user);
+        changeVersions.markChanged(user);
+        List<DailyPrescriptionCount> counts = new ArrayList<>();
+        for (Object[] row : prescriptionRepository.countAllPrescriptionsByDate(user)) {
+            counts.add(new DailyPrescriptionCount(user, (LocalDate) row[0], (Long) row[1]));
+        }
+        dailyCountRepository.saveAll(counts);
+        return counts.size();
+    }
+
+    /**
+     * Rebuilds every user's counters, each in its own transaction on the user's shard.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildAll() {
+        int days = 0;
+        for (User user : ShardContext.onDirectory(userRepository::findAll)) {
+            try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+                days += rebuildTransaction.execute(status -> rebuild(user));
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,189 @@
+package com.project.prescription.service;
+
+import com.project.prescription.dto.MedicineUsageDTO;
+import com.project.prescription.entity.Medicine;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.PrescriptionMedicine;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.MedicineRepository;
+import com.project.prescription.repository.PrescriptionMedicineRepository;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.util.MedicineParser;
+import com.project.prescription.util.ShardContext;
+import com.project.prescription.util.TextNormalizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the structured medicine lines of each prescription in step with its free-text
+ * medicines field. Like {@link DailyCountService} it is called from inside the
+ * prescription's write transaction, so lines and prescription commit together.
+ *
+ * Names are interned into the shared medicines dictionary, which lives in the directory
+ * shard while the lines live in the user's shard. Lookups and inserts of new names run in
+ * their own short transaction on the directory, so a concurrent insert of the same name
+ * only costs a retry of the lookup, never the caller's transaction.
+ */
+@Service
+@Transactional
+public class MedicineService {
+
+    private static final int REBUILD_CLEAR_INTERVAL = 500;
+
+    private final MedicineRepository medicineRepository;
+    private final PrescriptionMedicineRepository prescriptionMedicineRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ChangeVersionService changeVersions;
+    private final TransactionTemplate dictionaryTransaction;
+    private final TransactionTemplate dictionaryReadTransaction;
+
+    // Normalized name -> dictionary id; the dictionary only grows, so entries never go stale
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public MedicineService(MedicineRepository medicineRepository,
+                           PrescriptionMedicineRepository prescriptionMedicineRepository,
+                           PrescriptionRepository prescriptionRepository,
+                           ChangeVersionService changeVersions,
+                           PlatformTransactionManager transactionManager) {
+        this.medicineRepository = medicineRepository;
+        this.prescriptionMedicineRepository = prescriptionMedicineRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.changeVersions = changeVersions;
+        this.dictionaryTransaction = new TransactionTemplate(transactionManager);
+        this.dictionaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dictionaryReadTransaction = new TransactionTemplate(transactionManager);
+        this.dictionaryReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dictionaryReadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Parses the prescription's medicines text and stores one line per medicine.
+     *
+     * @return number of lines stored
+     */
+    public int index(Prescription prescription) {
+        return index(prescription, prescription.getUser(), prescription.getPrescriptionDate(), prescription.getMedicines());
+    }
+
+    private int index(Prescription prescription, User user, LocalDate prescriptionDate, String medicines) {
+        int position = 0;
+        for (MedicineParser.Line line : MedicineParser.parse(medicines)) {
+            PrescriptionMedicine item = new PrescriptionMedicine();
+            item.setPrescription(prescription);
+            item.setUser(user);
+            item.setPrescriptionDate(prescriptionDate);
+            item.setMedicine(medicineRepository.getReferenceById(resolve(line.getName())));
+            item.setPosition(position++);
+            item.setStrength(line.getStrength());
+            item.setFrequency(line.getFrequency());
+            item.setDurationDays(line.getDurationDays());
+            prescriptionMedicineRepository.save(item);
+        }
+        return position;
+    }
+
+    public void reindex(Prescription prescription) {
+        remove(prescription.getId());
+        index(prescription);
+    }
+
+    /**
+     * Replaces the lines of a prescription that was updated without being loaded, given its new date and medicines.
+     */
+    public void reindex(Long prescriptionId, User user, LocalDate prescriptionDate, String medicines) {
+        remove(prescriptionId);
+        index(prescriptionRepository.getReferenceById(prescriptionId), user, prescriptionDate, medicines);
+    }
+
+    public void remove(Long prescriptionId) {
+        prescriptionMedicineRepository.deleteByPrescriptionId(prescriptionId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MedicineUsageDTO> getTopMedicines(User user, LocalDate startDate, LocalDate endDate, int limit) {
+        List<Object[]> rows = prescriptionMedicineRepository.findTopMedicines(user, startDate, endDate, Limit.of(limit));
+        List<Integer> ids = rows.stream().map(row -> (Integer) row[0]).toList();
+        // Loaded by id rather than with an IN query, so names come from the second-level cache
+        Map<Integer, String> names = ShardContext.onDirectory(() -> dictionaryReadTransaction.execute(status ->
+                entityManager.unwrap(Session.class).byMultipleIds(Medicine.class)
+                        .with(CacheMode.NORMAL).multiLoad(ids).stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toMap(Medicine::getId, Medicine::getDisplayName))));
+
+        List<MedicineUsageDTO> report = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Integer id = (Integer) row[0];
+            report.add(new MedicineUsageDTO(id, names.get(id), (Long) row[2], (Long) row[1]));
+        }
+        return report;
+    }
+
+    /**
+     * Re-parses all of a user's prescriptions, replacing their medicine lines.
+     *
+     * @return number of lines stored
+     */
+    public int rebuild(User user) {
+        prescriptionMedicineRepository.deleteByUser(user);
+        changeVersions.markChanged(user);
+        int lines = 0;
+        int rows = 0;
+        try (Stream<Prescription> prescriptions = prescriptionRepository.streamByUser(user)) {
+            Iterator<Prescription> iterator = prescriptions.iterator();
+            while (iterator.hasNext()) {
+                lines += index(iterator.next());
+                if (++rows % REBUILD_CLEAR_INTERVAL == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return lines;
+    }
+
+    private Integer resolve(String displayName) {
+        String name = TextNormalizer.normalize(displayName);
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            id = ShardContext.onDirectory(() -> lookupOrInsert(name, displayName));
+            idsByName.put(name, id);
+        }
+        return id;
+    }
+
+    private Integer lookupOrInsert(String name, String displayName) {
+        try {
+            return dictionaryTransaction.execute(status -> medicineRepository.findByName(name)
+                    .map(Medicine::getId)
+                    .orElseGet(() -> medicineRepository.save(new Medicine(name, displayName)).getId()));
+        } catch (DataIntegrityViolationException ex) {
+            // Another request added the same name first
+            return dictionaryReadTransaction.execute(status ->
+                    medicineRepository.findByName(name).map(Medicine::getId).orElseThrow(() -> ex));
+        }
+    }
+}
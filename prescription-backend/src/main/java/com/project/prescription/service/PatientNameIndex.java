@@ -0,0 +1,272 @@
+package com.project.prescription.service;
+
+import com.project.prescription.dto.PatientNameSuggestionDTO;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.util.ShardContext;
+import com.project.prescription.util.TextNormalizer;
+import com.project.prescription.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-user sorted map of distinct patient names with visit counts, for type-ahead.
+ * Names are keyed by their normalized form so "José  Díaz" and "jose diaz" are one
+ * patient; a prefix lookup is a range scan over the map. Each user keeps at most
+ * {@code prescription.patient-names.max-per-user} names, dropping the least visited
+ * (oldest first on ties) when a new one arrives.
+ *
+ * Like {@link PrescriptionSearchIndex} it is rebuilt from the table at startup and
+ * follows the write paths after commit.
+ */
+@Service
+public class PatientNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNameIndex.class);
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Long, UserNames> indexes = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Value("${prescription.patient-names.max-per-user:10000}")
+    private int maxNamesPerUser;
+
+    @Value("${prescription.patient-names.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Autowired
+    public PatientNameIndex(PrescriptionRepository prescriptionRepository, ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Discards the index and reloads distinct names and their counts from the table of each shard.
+     *
+     * @return number of distinct names kept across all users
+     */
+    public int rebuild() {
+        long started = System.nanoTime();
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Long, UserNames> rebuilt = new HashMap<>();
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardContext.run(shard, () -> readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = prescriptionRepository.streamPatientNameCounts()) {
+                        rows.forEach(row -> rebuilt.computeIfAbsent((Long) row[0], userId -> new UserNames(maxNamesPerUser))
+                                .add((String) row[1], (Long) row[2]));
+                    }
+                }));
+            }
+            indexes.clear();
+            indexes.putAll(rebuilt);
+            int names = rebuilt.values().stream().mapToInt(UserNames::size).sum();
+            log.info("Patient name index rebuilt: {} names for {} users in {} ms",
+                    names, rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+            return names;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts one more visit for {@code name} once the current transaction commits.
+     */
+    public void record(Long userId, String name) {
+        afterCommit(() -> names(userId).add(name, 1));
+    }
+
+    /**
+     * Moves one visit from {@code previousName} to {@code name} once the current transaction commits.
+     */
+    public void rename(Long userId, String previousName, String name) {
+        if (TextNormalizer.normalize(previousName).equals(TextNormalizer.normalize(name))) {
+            // Same patient; only the spelling shown in suggestions may change
+            afterCommit(() -> names(userId).add(name, 0));
+            return;
+        }
+        afterCommit(() -> {
+            UserNames names = names(userId);
+            names.add(previousName, -1);
+            names.add(name, 1);
+        });
+    }
+
+    /**
+     * Removes one visit for {@code name} once the current transaction commits.
+     */
+    public void forget(Long userId, String name) {
+        afterCommit(() -> names(userId).add(name, -1));
+    }
+
+    /**
+     * Names starting with {@code prefix}, most visited first.
+     */
+    public List<PatientNameSuggestionDTO> suggest(Long userId, String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        rebuildLock.readLock().lock();
+        try {
+            UserNames names = indexes.get(userId);
+            return names == null ? List.of() : names.suggest(key, limit);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private UserNames names(Long userId) {
+        return indexes.computeIfAbsent(userId, key -> new UserNames(maxNamesPerUser));
+    }
+
+    private void afterCommit(Runnable change) {
+        TransactionCallbacks.afterCommit(() -> {
+            rebuildLock.readLock().lock();
+            try {
+                change.run();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private String displayName;
+        private long visits;
+        private long lastSeen;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Comparator<Entry> LEAST_USEFUL_FIRST = Comparator
+            .comparingLong((Entry entry) -> entry.visits)
+            .thenComparingLong(entry -> entry.lastSeen);
+
+    private static final Comparator<Entry> BEST_MATCH_FIRST = Comparator
+            .comparingLong((Entry entry) -> entry.visits).reversed()
+            .thenComparing(entry -> entry.key);
+
+    /**
+     * One user's names: looked up by normalized key, and ordered by visits so the
+     * entry to evict at the cap is found in log time.
+     */
+    private static final class UserNames {
+
+        private final int capacity;
+        private final NavigableMap<String, Entry> byKey = new TreeMap<>();
+        private final TreeSet<Entry> byUsefulness = new TreeSet<>(LEAST_USEFUL_FIRST);
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private long clock;
+
+        private UserNames(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void add(String name, long delta) {
+            if (name == null) {
+                return;
+            }
+            String key = TextNormalizer.normalize(name);
+            if (key.isEmpty()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                Entry entry = byKey.get(key);
+                if (entry == null) {
+                    if (delta <= 0) {
+                        return;
+                    }
+                    entry = new Entry(key);
+                    byKey.put(key, entry);
+                } else {
+                    byUsefulness.remove(entry);
+                }
+                entry.visits += delta;
+                if (entry.visits <= 0) {
+                    byKey.remove(key);
+                    return;
+                }
+                if (delta >= 0) {
+                    entry.displayName = name.trim().replaceAll("\\s+", " ");
+                    entry.lastSeen = ++clock;
+                }
+                byUsefulness.add(entry);
+                if (byKey.size() > capacity) {
+                    byKey.remove(byUsefulness.pollFirst().key);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<PatientNameSuggestionDTO> suggest(String prefix, int limit) {
+            lock.readLock().lock();
+            try {
+                // Keep the best `limit` matches in a heap whose head is the weakest of them
+                PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, BEST_MATCH_FIRST.reversed());
+                for (Entry entry : byKey.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                    best.offer(entry);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+                List<Entry> ordered = new ArrayList<>(best);
+                ordered.sort(BEST_MATCH_FIRST);
+                List<PatientNameSuggestionDTO> suggestions = new ArrayList<>(ordered.size());
+                for (Entry entry : ordered) {
+                    suggestions.add(new PatientNameSuggestionDTO(entry.displayName, entry.visits));
+                }
+                return suggestions;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return byKey.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
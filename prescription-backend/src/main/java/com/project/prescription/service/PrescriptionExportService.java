@@ -0,0 +1,130 @@
+package com.project.prescription.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.PrescriptionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's prescriptions to an output stream as NDJSON or CSV. Rows come from a
+ * forward-only query stream and the persistence context is cleared every few hundred
+ * rows, so memory stays flat regardless of how many rows are exported.
+ */
+@Service
+public class PrescriptionExportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String CSV_HEADER =
+            "id,prescriptionDate,patientName,patientAge,patientGender,diagnosis,medicines,nextVisitDate\n";
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${prescription.export.clear-interval:500}")
+    private int clearInterval;
+
+    @Autowired
+    public PrescriptionExportService(PrescriptionRepository prescriptionRepository, ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.rowWriter = objectMapper.writerFor(PrescriptionDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(User user, LocalDate startDate, LocalDate endDate, Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Prescription> rows = startDate == null || endDate == null
+                    ? prescriptionRepository.streamByUser(user)
+                    : prescriptionRepository.streamByUserAndPrescriptionDateBetween(user, startDate, endDate)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (format == Format.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+                int written = 0;
+                Iterator<Prescription> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Prescription prescription = iterator.next();
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, prescription);
+                    } else {
+                        rowWriter.writeValue(writer, new PrescriptionDTO(prescription));
+                        writer.write('\n');
+                    }
+                    if (++written % clearInterval == 0) {
+                        entityManager.clear();
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private static void writeCsvRow(Writer writer, Prescription p) throws IOException {
+        writer.write(String.valueOf(p.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(p.getPrescriptionDate()));
+        writer.write(',');
+        writeCsvField(writer, p.getPatientName());
+        writer.write(',');
+        writer.write(String.valueOf(p.getPatientAge()));
+        writer.write(',');
+        writer.write(p.getPatientGender() != null ? p.getPatientGender().name() : "");
+        writer.write(',');
+        writeCsvField(writer, p.getDiagnosis());
+        writer.write(',');
+        writeCsvField(writer, p.getMedicines());
+        writer.write(',');
+        writer.write(p.getNextVisitDate() != null ? p.getNextVisitDate().toString() : "");
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
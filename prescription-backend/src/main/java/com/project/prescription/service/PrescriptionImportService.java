@@ -0,0 +1,236 @@
+package com.project.prescription.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.prescription.dto.ImportResultDTO;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams prescriptions out of a JSON array or NDJSON body, validates each row and
+ * writes valid rows in chunks. Each chunk is its own transaction: rows are persisted
+ * with pre-allocated sequence ids so Hibernate sends them as JDBC batches, the daily
+ * rollup is adjusted once per day touched, and the persistence context is cleared
+ * before the next chunk so memory does not grow with the size of the import.
+ *
+ * A chunk the database rejects is rolled back and written again one row per
+ * transaction, so the rows that fail are reported and the rest are still imported.
+ */
+@Service
+public class PrescriptionImportService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DailyCountService dailyCountService;
+    private final PrescriptionSearchIndex searchIndex;
+    private final PatientNameIndex patientNameIndex;
+    private final MedicineService medicineService;
+    private final ChangeVersionService changeVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${prescription.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${prescription.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public PrescriptionImportService(ObjectMapper objectMapper, Validator validator,
+                                     DailyCountService dailyCountService,
+                                     PrescriptionSearchIndex searchIndex, PatientNameIndex patientNameIndex,
+                                     MedicineService medicineService, ChangeVersionService changeVersions,
+                                     PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.dailyCountService = dailyCountService;
+        this.searchIndex = searchIndex;
+        this.patientNameIndex = patientNameIndex;
+        this.medicineService = medicineService;
+        this.changeVersions = changeVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResultDTO importJsonArray(InputStream body, User user) throws IOException {
+        ImportRun run = new ImportRun(user);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Expected a JSON array of prescriptions");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    run.accept(parser.readValueAsTree());
+                } else {
+                    parser.skipChildren();
+                    run.reject(Map.of("row", "Expected a JSON object"));
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    public ImportResultDTO importNdjson(InputStream body, User user) throws IOException {
+        ImportRun run = new ImportRun(user);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException ex) {
+                run.reject(Map.of("row", "Malformed JSON"));
+                continue;
+            }
+            run.accept(node);
+        }
+        return run.finish();
+    }
+
+    private void writeChunk(List<PrescriptionDTO> chunk, User user) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<LocalDate, Long> perDay = new HashMap<>();
+            for (PrescriptionDTO dto : chunk) {
+                Prescription prescription = dto.toEntity();
+                prescription.setId(null);
+                prescription.setUser(user);
+                entityManager.persist(prescription);
+                medicineService.index(prescription);
+                searchIndex.index(prescription);
+                patientNameIndex.record(user.getId(), prescription.getPatientName());
+                perDay.merge(prescription.getPrescriptionDate(), 1L, Long::sum);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            perDay.forEach((day, count) -> dailyCountService.add(user, day, count));
+            changeVersions.markChanged(user);
+        });
+    }
+
+    private final class ImportRun {
+
+        private final User user;
+        private final long startedAt = System.nanoTime();
+        private final ImportResultDTO result = new ImportResultDTO();
+        private final List<PrescriptionDTO> chunk = new ArrayList<>();
+        // 1-based input position of each row in the chunk, for error reports
+        private final List<Integer> chunkRows = new ArrayList<>();
+
+        private ImportRun(User user) {
+            this.user = user;
+        }
+
+        void accept(JsonNode node) {
+            PrescriptionDTO dto;
+            try {
+                dto = objectMapper.treeToValue(node, PrescriptionDTO.class);
+            } catch (JsonProcessingException ex) {
+                reject(Map.of("row", "Invalid value: " + ex.getOriginalMessage()));
+                return;
+            }
+            result.setReceived(result.getReceived() + 1);
+
+            Set<ConstraintViolation<PrescriptionDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new LinkedHashMap<>();
+                for (ConstraintViolation<PrescriptionDTO> violation : violations) {
+                    errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                addError(result.getReceived(), errors);
+                return;
+            }
+
+            chunk.add(dto);
+            chunkRows.add(result.getReceived());
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(Map<String, String> errors) {
+            result.setReceived(result.getReceived() + 1);
+            addError(result.getReceived(), errors);
+        }
+
+        private void addError(int row, Map<String, String> errors) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ImportResultDTO.RowError(row, errors));
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                writeChunk(chunk, user);
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException ex) {
+                writeRowByRow();
+            }
+            chunk.clear();
+            chunkRows.clear();
+        }
+
+        /**
+         * Retries a rejected chunk one row at a time to find the rows the database refuses.
+         * Nothing from the failed chunk was kept: the indexes and daily counts only change
+         * when a transaction commits.
+         */
+        private void writeRowByRow() {
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    writeChunk(List.of(chunk.get(i)), user);
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException ex) {
+                    // The first line names the constraint; the rest is the driver's SQL
+                    Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+                    String message = cause.getMessage() != null
+                            ? cause.getMessage().lines().findFirst().orElse("") : cause.getClass().getSimpleName();
+                    addError(chunkRows.get(i), Map.of("row", "Could not be saved: " + message));
+                }
+            }
+        }
+
+        ImportResultDTO finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - startedAt;
+            result.setElapsedMs(elapsedNanos / 1_000_000);
+            result.setRowsPerSecond(elapsedNanos > 0 ? result.getImported() * 1_000_000_000.0 / elapsedNanos : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.util.PageCursor;
+import com.project.prescription.util.ShardContext;
+import com.project.prescription.util.TextNormalizer;
+import com.project.prescription.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the diagnosis and medicines text of each user's
+ * prescriptions. Terms are lower-cased with accents stripped and map to sorted arrays of
+ * prescription ids, kept in a sorted map so prefix terms are a range scan. Each
+ * prescription's date is kept alongside its terms so results come back in the
+ * (prescriptionDate, id) order the list endpoint pages by: ids are allocated per shard,
+ * so on their own they do not follow the order prescriptions were written in.
+ *
+ * The index is rebuilt from the table once the application is ready and then follows
+ * the write paths: changes are applied after their transaction commits, so a rollback
+ * never leaves terms behind.
+ */
+@Service
+public class PrescriptionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionSearchIndex.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    // Held exclusively while rebuilding so no incremental change is lost in the swap
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Value("${prescription.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Autowired
+    public PrescriptionSearchIndex(PrescriptionRepository prescriptionRepository, ShardRouter shardRouter,
+                                   PlatformTransactionManager transactionManager) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Discards the index and re-reads every prescription from the table of each shard.
+     *
+     * @return number of prescriptions indexed
+     */
+    public int rebuild() {
+        long started = System.nanoTime();
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Long, UserIndex> rebuilt = new HashMap<>();
+            int indexed = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                indexed += ShardContext.call(shard, () -> readOnlyTransaction.execute(status -> {
+                    int rows = 0;
+                    try (Stream<Object[]> stream = prescriptionRepository.streamSearchText()) {
+                        for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                            rebuilt.computeIfAbsent((Long) row[1], userId -> new UserIndex())
+                                    .put((Long) row[0], ((LocalDate) row[2]).toEpochDay(),
+                                            tokenize((String) row[3], (String) row[4]));
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }));
+            }
+            indexes.clear();
+            indexes.putAll(rebuilt);
+            log.info("Search index rebuilt: {} prescriptions for {} users in {} ms",
+                    indexed, rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+            return indexed;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the terms of a saved prescription once the current transaction commits.
+     */
+    public void index(Prescription prescription) {
+        index(prescription.getUser().getId(), prescription.getId(), prescription.getPrescriptionDate(),
+                prescription.getDiagnosis(), prescription.getMedicines());
+    }
+
+    public void index(Long userId, Long id, LocalDate prescriptionDate, String diagnosis, String medicines) {
+        Set<String> terms = tokenize(diagnosis, medicines);
+        long day = prescriptionDate.toEpochDay();
+        afterCommit(() -> indexes.computeIfAbsent(userId, key -> new UserIndex()).put(id, day, terms));
+    }
+
+    /**
+     * Removes a prescription from the index once the current transaction commits.
+     */
+    public void remove(Long userId, Long id) {
+        afterCommit(() -> {
+            UserIndex index = indexes.get(userId);
+            if (index != null) {
+                index.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Returns ids matching the query by prescription date, newest first, then by id
+     * descending; when {@code before} is given, only those strictly after it in that order.
+     * Whitespace-separated terms must all match; {@code OR} separates alternatives and a
+     * trailing {@code *} makes a term match as a prefix.
+     */
+    public long[] search(Long userId, String query, PageCursor before, int limit) {
+        List<List<String>> alternatives = parse(query);
+        if (alternatives.isEmpty()) {
+            throw new RuntimeException("Search query has no searchable terms");
+        }
+        rebuildLock.readLock().lock();
+        try {
+            UserIndex index = indexes.get(userId);
+            if (index == null) {
+                return new long[0];
+            }
+            return index.page(alternatives, before, limit);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        TransactionCallbacks.afterCommit(() -> {
+            rebuildLock.readLock().lock();
+            try {
+                change.run();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    static Set<String> tokenize(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String term : SEPARATORS.split(TextNormalizer.normalize(text))) {
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Splits a query into OR-ed groups of AND-ed terms. Prefix terms keep their trailing '*'.
+     */
+    static List<List<String>> parse(String query) {
+        List<List<String>> alternatives = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                if (!current.isEmpty()) {
+                    alternatives.add(current);
+                }
+                current = new ArrayList<>();
+                continue;
+            }
+            if (word.equals("AND")) {
+                continue;
+            }
+            boolean prefix = word.endsWith("*");
+            String[] parts = SEPARATORS.split(TextNormalizer.normalize(prefix ? word.substring(0, word.length() - 1) : word));
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].length() < MIN_TERM_LENGTH) {
+                    continue;
+                }
+                current.add(prefix && i == parts.length - 1 ? parts[i] + "*" : parts[i]);
+            }
+        }
+        if (!current.isEmpty()) {
+            alternatives.add(current);
+        }
+        return alternatives;
+    }
+
+    /**
+     * Index of position of the first element not less than {@code key} in {@code ids[0, size)}.
+     */
+    private static int lowerBound(long[] ids, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Sorted, growable array of prescription ids for one term.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            // Ids come from a sequence, so new rows almost always append
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = lowerBound(ids, size, id);
+                if (at < size && ids[at] == id) {
+                    return;
+                }
+                ensureCapacity();
+                System.arraycopy(ids, at, ids, at + 1, size - at);
+                ids[at] = id;
+            } else {
+                ensureCapacity();
+                ids[size] = id;
+            }
+            size++;
+        }
+
+        void remove(long id) {
+            int at = lowerBound(ids, size, id);
+            if (at < size && ids[at] == id) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+
+    /**
+     * A prescription's date, as an epoch day, and the terms it was indexed under.
+     */
+    private static final class Document {
+
+        private final long day;
+        private final String[] terms;
+
+        private Document(long day, String[] terms) {
+            this.day = day;
+            this.terms = terms;
+        }
+    }
+
+    // Oldest first, so the head of a bounded heap is the entry to drop
+    private static final Comparator<long[]> OLDEST_FIRST = Comparator
+            .comparingLong((long[] entry) -> entry[0])
+            .thenComparingLong(entry -> entry[1]);
+
+    /**
+     * One user's terms and, per prescription, its date and the terms it was indexed under
+     * so updates and deletes can remove exactly those postings.
+     */
+    private static final class UserIndex {
+
+        private final NavigableMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(Long id, long day, Set<String> newTerms) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(id);
+                String[] stored = new String[newTerms.size()];
+                int i = 0;
+                for (String term : newTerms) {
+                    Postings postings = terms.get(term);
+                    if (postings == null) {
+                        postings = new Postings();
+                        terms.put(term, postings);
+                    } else {
+                        // Share the key instance instead of keeping one copy per document
+                        term = terms.ceilingKey(term);
+                    }
+                    postings.add(id);
+                    stored[i++] = term;
+                }
+                documents.put(id, new Document(day, stored));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long id) {
+            Document previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.terms) {
+                Postings postings = terms.get(term);
+                if (postings != null) {
+                    postings.remove(id);
+                    if (postings.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Up to {@code limit} matching ids after {@code before}, newest date first and by
+         * id descending within a date.
+         */
+        long[] page(List<List<String>> alternatives, PageCursor before, int limit) {
+            lock.readLock().lock();
+            try {
+                long[] matches = new long[0];
+                for (List<String> group : alternatives) {
+                    matches = union(matches, matchAll(group));
+                }
+                long beforeDay = before == null ? Long.MAX_VALUE : before.getPrescriptionDate().toEpochDay();
+                long beforeId = before == null ? Long.MAX_VALUE : before.getId();
+                // Keep the newest `limit` matches in a heap whose head is the oldest of them
+                PriorityQueue<long[]> newest = new PriorityQueue<>(limit + 1, OLDEST_FIRST);
+                for (long id : matches) {
+                    long day = documents.get(id).day;
+                    if (day > beforeDay || (day == beforeDay && id >= beforeId)) {
+                        continue;
+                    }
+                    newest.offer(new long[]{day, id});
+                    if (newest.size() > limit) {
+                        newest.poll();
+                    }
+                }
+                long[] page = new long[newest.size()];
+                for (int i = page.length - 1; i >= 0; i--) {
+                    page[i] = newest.poll()[1];
+                }
+                return page;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long[] matchAll(List<String> group) {
+            long[] result = null;
+            for (String term : group) {
+                long[] ids = matchTerm(term);
+                result = result == null ? ids : intersect(result, ids);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result == null ? new long[0] : result;
+        }
+
+        private long[] matchTerm(String term) {
+            if (!term.endsWith("*")) {
+                Postings postings = terms.get(term);
+                return postings == null ? new long[0] : postings.toArray();
+            }
+            String prefix = term.substring(0, term.length() - 1);
+            long[] ids = new long[0];
+            for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                ids = union(ids, postings.toArray());
+            }
+            return ids;
+        }
+    }
+}
@@ -1,93 +1,260 @@
 package com.project.prescription.service;
 
+import com.project.prescription.dto.PatientNameSuggestionDTO;
 import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionPageDTO;
+import com.project.prescription.dto.PrescriptionPatchDTO;
+import com.project.prescription.dto.PrescriptionView;
 import com.project.prescription.entity.Prescription;
 import com.project.prescription.entity.User;
 import com.project.prescription.repository.PrescriptionRepository;
+import com.project.prescription.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Write methods run in the class-level read-write transaction and work on managed
+ * entities. Read methods use DTO projections in read-only transactions, which also
+ * switch the Hibernate session to FlushMode.MANUAL so nothing is dirty-checked.
+ */
 @Service
 @Transactional
 public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
+    private final DailyCountService dailyCountService;
+    private final PrescriptionSearchIndex searchIndex;
+    private final PatientNameIndex patientNameIndex;
+    private final MedicineService medicineService;
+    private final ChangeVersionService changeVersions;
 
     @Autowired
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository, DailyCountService dailyCountService,
+                               PrescriptionSearchIndex searchIndex, PatientNameIndex patientNameIndex,
+                               MedicineService medicineService, ChangeVersionService changeVersions) {
         this.prescriptionRepository = prescriptionRepository;
+        this.dailyCountService = dailyCountService;
+        this.searchIndex = searchIndex;
+        this.patientNameIndex = patientNameIndex;
+        this.medicineService = medicineService;
+        this.changeVersions = changeVersions;
     }
 
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getAllPrescriptions(User user) {
-        List<Prescription> prescriptions = prescriptionRepository.findByUser(user);
-        return prescriptions.stream()
-                .map(PrescriptionDTO::new)
-                .collect(Collectors.toList());
+        return prescriptionRepository.findDtoByUser(user);
     }
 
-    public List<PrescriptionDTO> getPrescriptionsByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        List<Prescription> prescriptions = prescriptionRepository.findByUserAndPrescriptionDateBetween(user, startDate, endDate);
-        return prescriptions.stream()
-                .map(PrescriptionDTO::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<PrescriptionDTO> getPrescriptionsByDateRange(User user, LocalDate startDate, LocalDate endDate,
+                                                             PrescriptionView view) {
+        return view.includesText()
+                ? prescriptionRepository.findDtoByUserAndPrescriptionDateBetween(user, startDate, endDate)
+                : prescriptionRepository.findSummaryByUserAndPrescriptionDateBetween(user, startDate, endDate);
     }
 
-    public PrescriptionDTO getPrescriptionById(Long id, User user) {
-        Prescription prescription = prescriptionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prescription not found with id: " + id));
-        
-        if (prescription.getUser() == null || !prescription.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Prescription does not belong to user");
+    @Transactional(readOnly = true)
+    public PrescriptionPageDTO getPrescriptionPage(User user, LocalDate startDate, LocalDate endDate,
+                                                   String cursor, int size, PrescriptionView view) {
+        // Fetch one extra row so hasMore is known without a separate count query
+        Limit limit = Limit.of(size + 1);
+        boolean text = view.includesText();
+        List<PrescriptionDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = text
+                    ? prescriptionRepository.findPage(user, startDate, endDate, limit)
+                    : prescriptionRepository.findSummaryPage(user, startDate, endDate, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = text
+                    ? prescriptionRepository.findPageAfter(user, startDate, endDate,
+                            after.getPrescriptionDate(), after.getId(), limit)
+                    : prescriptionRepository.findSummaryPageAfter(user, startDate, endDate,
+                            after.getPrescriptionDate(), after.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PrescriptionDTO last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(last.getPrescriptionDate(), last.getId()).encode();
+        }
+
+        return new PrescriptionPageDTO(rows, nextCursor, hasMore, size);
+    }
+
+    /**
+     * Full-text search over diagnosis and medicines, by prescription date newest first, paged
+     * with a (prescriptionDate, id) cursor like the list. The index supplies the matching ids
+     * for one page and only those rows are read from the table.
+     */
+    @Transactional(readOnly = true)
+    public PrescriptionPageDTO searchPrescriptions(User user, String query, String cursor, int size,
+                                                   PrescriptionView view) {
+        PageCursor before = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+
+        long[] ids = searchIndex.search(user.getId(), query, before, size + 1);
+        boolean hasMore = ids.length > size;
+        List<Long> pageIds = new ArrayList<>(Math.min(ids.length, size));
+        for (int i = 0; i < ids.length && i < size; i++) {
+            pageIds.add(ids[i]);
         }
-        
-        return new PrescriptionDTO(prescription);
+
+        List<PrescriptionDTO> rows;
+        if (pageIds.isEmpty()) {
+            rows = List.of();
+        } else {
+            rows = view.includesText()
+                    ? prescriptionRepository.findDtoByUserAndIdIn(user, pageIds)
+                    : prescriptionRepository.findSummaryByUserAndIdIn(user, pageIds);
+        }
+        // Rows come back in the index's order, so the last one is where the next page starts
+        String nextCursor = null;
+        if (hasMore && !rows.isEmpty()) {
+            PrescriptionDTO last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(last.getPrescriptionDate(), last.getId()).encode();
+        }
+        return new PrescriptionPageDTO(rows, nextCursor, nextCursor != null, size);
+    }
+
+    // Served from memory only, so no transaction or connection is needed
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PatientNameSuggestionDTO> suggestPatientNames(User user, String prefix, int limit) {
+        return patientNameIndex.suggest(user.getId(), prefix, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public PrescriptionDTO getPrescriptionById(Long id, User user) {
+        return prescriptionRepository.findDtoByIdAndUser(id, user).orElseThrow(() -> notFound(id));
     }
 
     public PrescriptionDTO createPrescription(PrescriptionDTO prescriptionDTO, User user) {
         Prescription prescription = prescriptionDTO.toEntity();
+        // Ids are always assigned here; a client-supplied one must not turn the insert into an update
+        prescription.setId(null);
         prescription.setUser(user);
         Prescription savedPrescription = prescriptionRepository.save(prescription);
+        dailyCountService.increment(user, savedPrescription.getPrescriptionDate());
+        medicineService.index(savedPrescription);
+        searchIndex.index(savedPrescription);
+        patientNameIndex.record(user.getId(), savedPrescription.getPatientName());
+        changeVersions.markChanged(user);
         return new PrescriptionDTO(savedPrescription);
     }
 
+    /**
+     * Replaces every field of the prescription, writing only the columns that changed.
+     * When the DTO carries a version, the update is rejected if the prescription has been
+     * saved since that version was read.
+     */
     public PrescriptionDTO updatePrescription(Long id, PrescriptionDTO prescriptionDTO, User user) {
-        Prescription existingPrescription = prescriptionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prescription not found with id: " + id));
-        
-        if (!existingPrescription.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Prescription does not belong to user");
-        }
-        
-        existingPrescription.setPrescriptionDate(prescriptionDTO.getPrescriptionDate());
-        existingPrescription.setPatientName(prescriptionDTO.getPatientName());
-        existingPrescription.setPatientAge(prescriptionDTO.getPatientAge());
-        existingPrescription.setPatientGender(prescriptionDTO.getPatientGender());
-        existingPrescription.setDiagnosis(prescriptionDTO.getDiagnosis());
-        existingPrescription.setMedicines(prescriptionDTO.getMedicines());
-        existingPrescription.setNextVisitDate(prescriptionDTO.getNextVisitDate());
-        
-        Prescription updatedPrescription = prescriptionRepository.save(existingPrescription);
-        return new PrescriptionDTO(updatedPrescription);
+        PrescriptionDTO current = prescriptionRepository.findDtoByIdAndUser(id, user).orElseThrow(() -> notFound(id));
+        if (prescriptionDTO.getVersion() != null && !prescriptionDTO.getVersion().equals(current.getVersion())) {
+            throw conflict(id);
+        }
+        return apply(current, PrescriptionPatchDTO.between(current, prescriptionDTO), user);
+    }
+
+    /**
+     * Changes only the fields present in the patch, provided the prescription is still at
+     * the patch's version. A patch that leaves dates, names, diagnosis and medicines alone
+     * affects nothing derived from the row, so it is written blind in a single UPDATE whose
+     * predicate checks ownership and version; otherwise the previous values are read first
+     * to keep counts and indexes in step.
+     *
+     * @return the prescription's version after the patch
+     */
+    public long patchPrescription(Long id, PrescriptionPatchDTO patch, User user) {
+        if (patch.isEmpty() || patch.isIndexed()) {
+            PrescriptionDTO current = prescriptionRepository.findDtoByIdAndUser(id, user).orElseThrow(() -> notFound(id));
+            if (!patch.getVersion().equals(current.getVersion())) {
+                throw conflict(id);
+            }
+            patch.retainChanges(current);
+            return apply(current, patch, user).getVersion();
+        }
+        if (prescriptionRepository.patch(id, user, patch.getVersion(), patch) == 0) {
+            throw writeFailure(id, user);
+        }
+        changeVersions.markChanged(user);
+        return patch.getVersion() + 1;
+    }
+
+    private PrescriptionDTO apply(PrescriptionDTO current, PrescriptionPatchDTO patch, User user) {
+        PrescriptionDTO updated = patch.applyTo(current);
+        if (patch.isEmpty()) {
+            return updated;
+        }
+        Long id = current.getId();
+        if (prescriptionRepository.patch(id, user, current.getVersion(), patch) == 0) {
+            // Read at this version a moment ago, so someone saved in between
+            throw conflict(id);
+        }
+        updated.setVersion(current.getVersion() + 1);
+
+        if (patch.has(PrescriptionPatchDTO.Field.PRESCRIPTION_DATE)) {
+            dailyCountService.move(user, current.getPrescriptionDate(), updated.getPrescriptionDate());
+        }
+        if (patch.has(PrescriptionPatchDTO.Field.MEDICINES) || patch.has(PrescriptionPatchDTO.Field.PRESCRIPTION_DATE)) {
+            medicineService.reindex(id, user, updated.getPrescriptionDate(), updated.getMedicines());
+        }
+        if (patch.has(PrescriptionPatchDTO.Field.DIAGNOSIS) || patch.has(PrescriptionPatchDTO.Field.MEDICINES)
+                || patch.has(PrescriptionPatchDTO.Field.PRESCRIPTION_DATE)) {
+            searchIndex.index(user.getId(), id, updated.getPrescriptionDate(), updated.getDiagnosis(), updated.getMedicines());
+        }
+        if (patch.has(PrescriptionPatchDTO.Field.PATIENT_NAME)) {
+            patientNameIndex.rename(user.getId(), current.getPatientName(), updated.getPatientName());
+        }
+        changeVersions.markChanged(user);
+        return updated;
     }
 
     public void deletePrescription(Long id, User user) {
-        Prescription prescription = prescriptionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prescription not found with id: " + id));
-        
-        if (prescription.getUser() == null || !prescription.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Prescription does not belong to user");
+        PrescriptionDTO prescription = prescriptionRepository.findDtoByIdAndUser(id, user).orElseThrow(() -> notFound(id));
+
+        // Lines reference the prescription, so they go first
+        medicineService.remove(id);
+        if (prescriptionRepository.deleteByIdAndUserAndVersion(id, user, prescription.getVersion()) == 0) {
+            throw conflict(id);
         }
-        
-        prescriptionRepository.delete(prescription);
+        dailyCountService.decrement(user, prescription.getPrescriptionDate());
+        searchIndex.remove(user.getId(), id);
+        patientNameIndex.forget(user.getId(), prescription.getPatientName());
+        changeVersions.markChanged(user);
+    }
+
+    /**
+     * Explains why a write scoped to {@code user} matched no row.
+     */
+    private RuntimeException writeFailure(Long id, User user) {
+        return prescriptionRepository.findVersionByIdAndUser(id, user).isPresent() ? conflict(id) : notFound(id);
+    }
+
+    private RuntimeException notFound(Long id) {
+        return prescriptionRepository.existsById(id)
+                ? new RuntimeException("Prescription does not belong to user")
+                : new RuntimeException("Prescription not found with id: " + id);
+    }
+
+    private static RuntimeException conflict(Long id) {
+        return new ObjectOptimisticLockingFailureException(Prescription.class, id);
     }
 
+    @Transactional(readOnly = true)
     public List<Object[]> getDayWisePrescriptionCount(User user, LocalDate startDate, LocalDate endDate) {
-        return prescriptionRepository.countPrescriptionsByDate(user, startDate, endDate);
+        return dailyCountService.getCounts(user, startDate, endDate);
     }
 }
 
@@ -0,0 +1,203 @@
+package com.project.prescription.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.prescription.entity.RefreshTokenFamily;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.RefreshTokenFamilyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues and rotates opaque refresh tokens so clients can renew short-lived access tokens
+ * without sending the password again; the BCrypt check only runs on real sign-in.
+ *
+ * A token is {@code <familyId>.<secret>}. Each login starts a family, and only a hash of
+ * the newest secret is stored. Refreshing swaps it for a new one in a single
+ * compare-and-set update; if an older token of the family shows up again it has been
+ * copied, so the family is revoked and every holder has to sign in again.
+ *
+ * Tabs of one browser share the refresh token and tend to refresh together. A token that
+ * was replaced less than jwt.refresh.reuse-grace-ms ago is therefore answered with the
+ * same successor it was replaced by, as long as that successor is still the family's
+ * current token, instead of being treated as reuse.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final MeterRegistry meterRegistry;
+    private final SecureRandom random = new SecureRandom();
+    // "<familyId>.<hash of replaced secret>" -> the rotation that replaced it
+    private final Cache<String, Rotation> recentRotations;
+
+    @Value("${jwt.refresh.idle-timeout:1209600000}")
+    private long idleTimeoutMillis;
+
+    @Value("${jwt.refresh.max-lifetime:2592000000}")
+    private long maxLifetimeMillis;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenFamilyRepository familyRepository, MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh.reuse-grace-ms:30000}") long reuseGraceMillis) {
+        this.familyRepository = familyRepository;
+        this.meterRegistry = meterRegistry;
+        this.recentRotations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(reuseGraceMillis))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Starts a new token family for a user who has just signed in with their password.
+     */
+    public String issue(User user) {
+        Instant now = Instant.now();
+        familyRepository.deleteExpired(user, now);
+
+        String familyId = randomToken(16);
+        String secret = randomToken(32);
+        familyRepository.save(new RefreshTokenFamily(familyId, user, hash(secret), now,
+                now.plusMillis(maxLifetimeMillis)));
+        count("issued");
+        return familyId + "." + secret;
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its family.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        String[] parts = split(token);
+        RefreshTokenFamily family = familyRepository.findWithUserById(parts[0])
+                .orElseThrow(() -> invalid("unknown", "Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (family.isRevoked()) {
+            throw invalid("revoked", "Refresh token has been revoked");
+        }
+        if (now.isAfter(family.getExpiresAt()) || now.isAfter(family.getLastUsedAt().plusMillis(idleTimeoutMillis))) {
+            throw invalid("expired", "Refresh token has expired");
+        }
+        if (!family.getUser().isEnabled()) {
+            throw invalid("disabled", "Account is disabled");
+        }
+
+        String presentedHash = hash(parts[1]);
+        String secret = randomToken(32);
+        if (familyRepository.rotate(family.getId(), presentedHash, hash(secret), now) == 0) {
+            // Not the current token: replaced a moment ago by another tab, or an earlier one replayed
+            Rotation successor = recentRotations.getIfPresent(family.getId() + "." + presentedHash);
+            if (successor != null && familyRepository.isCurrent(family.getId(), hash(successor.getSecret()))) {
+                count("concurrent");
+                return successor;
+            }
+            familyRepository.revoke(family.getId());
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    family.getUser().getUsername(), family.getId());
+            throw invalid("reused", "Refresh token reuse detected, please sign in again");
+        }
+        Rotation rotation = new Rotation(family.getUser(), family.getId(), secret);
+        // Cached before commit, so a concurrent refresh that waited on this row finds it
+        recentRotations.put(family.getId() + "." + presentedHash, rotation);
+        count("rotated");
+        return rotation;
+    }
+
+    /**
+     * Ends the session the token belongs to. Unknown tokens are ignored.
+     */
+    public void revoke(String token) {
+        String[] parts = split(token);
+        familyRepository.findById(parts[0])
+                .filter(family -> family.getCurrentHash().equals(hash(parts[1])))
+                .ifPresent(family -> family.setRevoked(true));
+    }
+
+    private String[] split(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator <= 0 || separator == token.length() - 1) {
+            throw invalid("malformed", "Invalid refresh token");
+        }
+        return new String[] {token.substring(0, separator), token.substring(separator + 1)};
+    }
+
+    private String randomToken(int bytes) {
+        byte[] buffer = new byte[bytes];
+        random.nextBytes(buffer);
+        return TOKEN_ENCODER.encodeToString(buffer);
+    }
+
+    private static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private InvalidRefreshTokenException invalid(String reason, String message) {
+        count(reason);
+        return new InvalidRefreshTokenException(message);
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("auth.refresh", "result", result).increment();
+    }
+
+    /**
+     * The user a refresh token belonged to and the token that replaces it.
+     */
+    public static final class Rotation {
+
+        private final User user;
+        private final String familyId;
+        private final String secret;
+
+        private Rotation(User user, String familyId, String secret) {
+            this.user = user;
+            this.familyId = familyId;
+            this.secret = secret;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return familyId + "." + secret;
+        }
+
+        private String getSecret() {
+            return secret;
+        }
+    }
+
+    public static class InvalidRefreshTokenException extends RuntimeException {
+
+        public InvalidRefreshTokenException(String message) {
+            super(message);
+        }
+    }
+}
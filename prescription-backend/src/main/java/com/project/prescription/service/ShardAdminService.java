@@ -0,0 +1,262 @@
+package com.project.prescription.service;
+
+import com.project.prescription.config.ShardRoutingDataSource;
+import com.project.prescription.dto.DayCountDTO;
+import com.project.prescription.dto.ShardStatsDTO;
+import com.project.prescription.entity.User;
+import com.project.prescription.repository.UserShardRepository;
+import com.project.prescription.util.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Operations that span shards: scatter-gather queries for reporting across all users, and
+ * moving a user's prescription data to another shard. Both work on the shard pools directly
+ * with JDBC rather than through the routed entity manager.
+ */
+@Service
+public class ShardAdminService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardAdminService.class);
+
+    // A user's rows, in the order they are copied; deleted in reverse so lines go before their prescriptions
+    private static final String[] USER_TABLES = {"prescriptions", "prescription_medicines", "daily_prescription_counts"};
+
+    // Identity column of the daily counts, which the target shard numbers itself
+    private static final String GENERATED_ID_TABLE = "daily_prescription_counts";
+
+    private final ShardRoutingDataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final UserShardRepository userShardRepository;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${sharding.move-batch-size:500}")
+    private int moveBatchSize;
+
+    @Autowired
+    public ShardAdminService(ShardRoutingDataSource dataSource, ShardRouter shardRouter,
+                             UserShardRepository userShardRepository, TaskExecutor taskExecutor) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.userShardRepository = userShardRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Runs the query on every shard at once and concatenates the rows in shard order.
+     */
+    public <T> List<T> queryAll(String sql, RowMapper<T> rowMapper, Object... args) {
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(dataSource.getShardCount());
+        for (int shard = 0; shard < dataSource.getShardCount(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource.getShard(shard));
+            parts.add(CompletableFuture.supplyAsync(() -> jdbc.query(sql, rowMapper, args), taskExecutor));
+        }
+        List<T> rows = new ArrayList<>();
+        try {
+            parts.forEach(part -> rows.addAll(part.join()));
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+        return rows;
+    }
+
+    public List<ShardStatsDTO> getStats() {
+        Map<Integer, Long> assigned = new HashMap<>();
+        for (Object[] row : ShardContext.onDirectory(userShardRepository::countUsersByShard)) {
+            assigned.put((Integer) row[0], (Long) row[1]);
+        }
+        // One row per shard, in shard order
+        List<long[]> counts = queryAll(
+                "SELECT (SELECT COUNT(DISTINCT user_id) FROM prescriptions), (SELECT COUNT(*) FROM prescriptions), "
+                        + "(SELECT COUNT(*) FROM prescription_medicines)",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+
+        List<ShardStatsDTO> stats = new ArrayList<>(counts.size());
+        for (int shard = 0; shard < counts.size(); shard++) {
+            long[] shardCounts = counts.get(shard);
+            stats.add(new ShardStatsDTO(shard, assigned.getOrDefault(shard, 0L),
+                    shardCounts[0], shardCounts[1], shardCounts[2]));
+        }
+        return stats;
+    }
+
+    /**
+     * Prescriptions per day across all users and shards, from the daily counters.
+     */
+    public List<DayCountDTO> getDayWiseTotals(LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = queryAll(
+                "SELECT count_date, SUM(prescription_count) FROM daily_prescription_counts "
+                        + "WHERE count_date BETWEEN ? AND ? AND prescription_count > 0 GROUP BY count_date",
+                (rs, rowNum) -> new Object[]{rs.getObject(1, LocalDate.class), rs.getLong(2)},
+                startDate, endDate);
+        Map<LocalDate, Long> totals = new TreeMap<>();
+        for (Object[] row : rows) {
+            totals.merge((LocalDate) row[0], (Long) row[1], Long::sum);
+        }
+        List<DayCountDTO> report = new ArrayList<>(totals.size());
+        totals.forEach((day, count) -> report.add(new DayCountDTO(day, count.intValue())));
+        return report;
+    }
+
+    /**
+     * Moves a user's prescriptions, medicine lines and daily counters to another shard while
+     * the rest of the system keeps running. The user's own requests wait for the move: the
+     * rows are copied in one transaction on the target, the directory is switched over, and
+     * only then are the rows deleted from the source. If the move fails before the switch the
+     * user stays where they were, and a partial copy is cleared by the next attempt.
+     *
+     * @return the shards involved and the rows copied per table
+     */
+    public Map<String, Object> moveUser(User user, int targetShard) {
+        if (targetShard < 0 || targetShard >= dataSource.getShardCount()) {
+            throw new RuntimeException("Unknown shard: " + targetShard);
+        }
+        Long userId = user.getId();
+        long started = System.nanoTime();
+        long stamp = shardRouter.lockForMove(userId);
+        try {
+            int sourceShard = shardRouter.shardOf(userId);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("username", user.getUsername());
+            result.put("from", sourceShard);
+            result.put("to", targetShard);
+            if (sourceShard == targetShard) {
+                result.put("copied", Map.of());
+                return result;
+            }
+
+            Map<String, Integer> copied = inTransaction(targetShard, target -> {
+                deleteUserRows(target, userId);
+                JdbcTemplate source = new JdbcTemplate(dataSource.getShard(sourceShard));
+                Map<String, Integer> rows = new LinkedHashMap<>();
+                for (String table : USER_TABLES) {
+                    rows.put(table, copyRows(source, target, table, userId));
+                }
+                return rows;
+            });
+            shardRouter.reassign(userId, targetShard);
+            try {
+                inTransaction(sourceShard, source -> deleteUserRows(source, userId));
+            } catch (RuntimeException ex) {
+                // The user is already served from the target; the leftovers are only wasted space
+                log.error("User {} moved to shard {} but rows remain in shard {}", userId, targetShard, sourceShard, ex);
+            }
+
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            log.info("Moved user {} from shard {} to shard {} in {} ms: {}", userId, sourceShard, targetShard, elapsedMs, copied);
+            result.put("copied", copied);
+            result.put("elapsedMs", elapsedMs);
+            return result;
+        } finally {
+            shardRouter.unlockAfterMove(userId, stamp);
+        }
+    }
+
+    private <T> T inTransaction(int shard, Function<JdbcTemplate, T> work) {
+        DataSource shardDataSource = dataSource.getShard(shard);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(shardDataSource));
+        return transaction.execute(status -> work.apply(new JdbcTemplate(shardDataSource)));
+    }
+
+    private static int deleteUserRows(JdbcTemplate jdbc, Long userId) {
+        int deleted = 0;
+        for (int i = USER_TABLES.length - 1; i >= 0; i--) {
+            deleted += jdbc.update("DELETE FROM " + USER_TABLES[i] + " WHERE user_id = ?", userId);
+        }
+        return deleted;
+    }
+
+    private int copyRows(JdbcTemplate source, JdbcTemplate target, String table, Long userId) {
+        RowCopier copier = new RowCopier(target, table, !GENERATED_ID_TABLE.equals(table), moveBatchSize);
+        source.query("SELECT * FROM " + table + " WHERE user_id = ?", copier, userId);
+        return copier.finish();
+    }
+
+    /**
+     * Re-inserts rows as they stream from the source, in batches, with the column list taken
+     * from the result set so new columns are carried over without changes here.
+     */
+    private static final class RowCopier implements RowCallbackHandler {
+        private final JdbcTemplate target;
+        private final String table;
+        private final boolean keepIds;
+        private final int batchSize;
+        private final List<Object[]> batch = new ArrayList<>();
+        private final List<Integer> columns = new ArrayList<>();
+        private String insert;
+        private int copied;
+
+        private RowCopier(JdbcTemplate target, String table, boolean keepIds, int batchSize) {
+            this.target = target;
+            this.table = table;
+            this.keepIds = keepIds;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (insert == null) {
+                insert = prepare(rs.getMetaData());
+            }
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rs.getObject(columns.get(i));
+            }
+            batch.add(values);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private String prepare(ResultSetMetaData metaData) throws SQLException {
+            List<String> names = new ArrayList<>();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                String name = metaData.getColumnName(column);
+                if (keepIds || !name.equalsIgnoreCase("id")) {
+                    columns.add(column);
+                    names.add(name);
+                }
+            }
+            return "INSERT INTO " + table + " (" + String.join(", ", names) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                target.batchUpdate(insert, batch);
+                copied += batch.size();
+                batch.clear();
+            }
+        }
+
+        private int finish() {
+            flush();
+            return copied;
+        }
+    }
+}
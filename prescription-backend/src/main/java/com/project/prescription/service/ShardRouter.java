@@ -0,0 +1,180 @@
+package com.project.prescription.service;
+
+import com.project.prescription.config.ShardRoutingDataSource;
+import com.project.prescription.entity.User;
+import com.project.prescription.entity.UserShard;
+import com.project.prescription.repository.UserShardRepository;
+import com.project.prescription.util.ShardContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Decides which shard holds each user's prescription data and binds it to the thread
+ * while the user's requests run. A user is first placed by a hash of their id; the
+ * placement is then recorded in the directory and only changes when the user is moved.
+ *
+ * Every binding holds the user's gate in shared mode, and a move holds it exclusively,
+ * so no request reads or writes a user's data while it is being copied between shards.
+ */
+@Service
+public class ShardRouter {
+
+    private final ShardRoutingDataSource dataSource;
+    private final UserShardRepository userShardRepository;
+    private final TransactionTemplate directoryTransaction;
+    private final long maxWaitMillis;
+
+    private final Map<Long, Integer> assignments = new ConcurrentHashMap<>();
+    private final Map<Long, StampedLock> gates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ShardRouter(ShardRoutingDataSource dataSource, UserShardRepository userShardRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${sharding.move-wait-ms:5000}") long maxWaitMillis) {
+        this.dataSource = dataSource;
+        this.userShardRepository = userShardRepository;
+        // Directory reads and writes must not join a transaction already open on another shard
+        this.directoryTransaction = new TransactionTemplate(transactionManager);
+        this.directoryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getShardCount() {
+        return dataSource.getShardCount();
+    }
+
+    /**
+     * Where a user is placed before anything is recorded: the id, mixed so consecutive ids
+     * spread evenly, modulo the shard count.
+     */
+    public int hashShard(Long userId) {
+        long h = userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) getShardCount());
+    }
+
+    public int shardOf(Long userId) {
+        Integer shard = assignments.get(userId);
+        if (shard != null) {
+            return shard;
+        }
+        int assigned;
+        try {
+            assigned = ShardContext.onDirectory(() -> directoryTransaction.execute(status ->
+                    userShardRepository.findById(userId)
+                            .orElseGet(() -> userShardRepository.save(new UserShard(userId, hashShard(userId))))
+                            .getShard()));
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent first request recorded the placement first; use what it wrote
+            assigned = ShardContext.onDirectory(() -> directoryTransaction.execute(status ->
+                    userShardRepository.findById(userId).orElseThrow(() -> ex).getShard()));
+        }
+        Integer current = assignments.putIfAbsent(userId, assigned);
+        return current != null ? current : assigned;
+    }
+
+    /**
+     * Binds the user's shard to the current thread until the binding is closed, waiting
+     * while the user is being moved.
+     *
+     * @return the binding, or null if a move did not finish within the wait time
+     */
+    public Binding tryEnter(User user) {
+        StampedLock gate = gate(user.getId());
+        long stamp;
+        try {
+            stamp = gate.tryReadLock(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            stamp = 0;
+        }
+        if (stamp == 0) {
+            return null;
+        }
+        try {
+            return new Binding(gate, stamp, ShardContext.bind(shardOf(user.getId())));
+        } catch (RuntimeException ex) {
+            gate.unlockRead(stamp);
+            throw ex;
+        }
+    }
+
+    public Binding enter(User user) {
+        Binding binding = tryEnter(user);
+        if (binding == null) {
+            throw new RuntimeException("Prescriptions are being moved to another shard, please retry");
+        }
+        return binding;
+    }
+
+    /**
+     * Waits for the user's requests in progress to finish and holds off new ones.
+     *
+     * @return the stamp to pass to {@link #unlockAfterMove}
+     */
+    long lockForMove(Long userId) {
+        long stamp;
+        try {
+            stamp = gate(userId).tryWriteLock(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            stamp = 0;
+        }
+        if (stamp == 0) {
+            throw new RuntimeException("User is busy, please retry the move");
+        }
+        return stamp;
+    }
+
+    void unlockAfterMove(Long userId, long stamp) {
+        gate(userId).unlockWrite(stamp);
+    }
+
+    /**
+     * Records that the user's data is now in {@code shard}; requests bound from here on go there.
+     */
+    void reassign(Long userId, int shard) {
+        ShardContext.onDirectory(() -> directoryTransaction.execute(status ->
+                userShardRepository.save(new UserShard(userId, shard))));
+        assignments.put(userId, shard);
+    }
+
+    private StampedLock gate(Long userId) {
+        return gates.computeIfAbsent(userId, id -> new StampedLock());
+    }
+
+    /**
+     * A user's shard bound to the current thread; closing it restores the previous shard.
+     */
+    public static final class Binding implements AutoCloseable {
+        private final StampedLock gate;
+        private final long stamp;
+        private final Integer previous;
+
+        private Binding(StampedLock gate, long stamp, Integer previous) {
+            this.gate = gate;
+            this.stamp = stamp;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            ShardContext.restore(previous);
+            gate.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.RevokedToken;
+import com.project.prescription.repository.RevokedTokenRepository;
+import com.project.prescription.util.BloomFilter;
+import com.project.prescription.util.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Access-token revocation by {@code jti}. Revoked ids are stored in revoked_tokens; every
+ * authenticated request first asks an in-memory Bloom filter, and only when it answers
+ * "maybe" does the request pay for a primary-key lookup. Nothing is revoked on almost
+ * every request, so the common case costs no I/O.
+ *
+ * The filter is split into generations by token expiry: a revoked id goes into the
+ * generation whose time bucket holds its token's expiry, and a token is only checked
+ * against that generation. Once a bucket has passed, every token in it has expired and
+ * is already rejected by signature checking, so the generation is dropped; memory stays
+ * at most (token lifetime / bucket width + 1) fixed-size filters. Rows are purged on
+ * the same schedule.
+ *
+ * Until the filters have been loaded at startup, checks go to the table. Revocations made
+ * on another instance are only seen here after a restart.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ConcurrentNavigableMap<Long, BloomFilter> generations = new ConcurrentSkipListMap<>();
+    private final Counter filtered;
+    private final Counter lookedUp;
+    private final Counter rejected;
+
+    private volatile boolean loaded;
+
+    @Value("${jwt.revocation.bucket-width:900000}")
+    private long bucketWidthMillis;
+
+    @Value("${jwt.revocation.expected-per-bucket:10000}")
+    private int expectedPerBucket;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.filtered = meterRegistry.counter("auth.revocation.check", "result", "filtered");
+        this.lookedUp = meterRegistry.counter("auth.revocation.check", "result", "lookup");
+        this.rejected = meterRegistry.counter("auth.revocation.check", "result", "revoked");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long started = System.nanoTime();
+        Instant now = Instant.now();
+        int[] count = new int[1];
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = revokedTokenRepository.streamActive(now)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    remember((String) row[0], ((Instant) row[1]).toEpochMilli());
+                    count[0]++;
+                }
+            }
+        });
+        loaded = true;
+        log.info("Token revocation filter loaded: {} revoked tokens in {} generations in {} ms",
+                count[0], generations.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Rejects the token from now until it expires. Tokens without a {@code jti} cannot be revoked.
+     */
+    public void revoke(VerifiedToken token) {
+        Instant now = Instant.now();
+        if (token.getId() == null || token.isExpired(now.toEpochMilli())) {
+            return;
+        }
+        // Into the filter first: a check racing the insert then goes to the table instead of passing
+        remember(token.getId(), token.getExpirationMillis());
+        transaction.executeWithoutResult(status -> {
+            revokedTokenRepository.deleteExpired(now);
+            if (!revokedTokenRepository.existsById(token.getId())) {
+                revokedTokenRepository.save(new RevokedToken(token.getId(),
+                        Instant.ofEpochMilli(token.getExpirationMillis()), now));
+            }
+        });
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getId() == null) {
+            return false;
+        }
+        if (loaded) {
+            dropExpiredGenerations(System.currentTimeMillis());
+            BloomFilter generation = generations.get(bucket(token.getExpirationMillis()));
+            if (generation == null || !generation.mightContain(token.getId())) {
+                filtered.increment();
+                return false;
+            }
+        }
+        lookedUp.increment();
+        boolean revoked = revokedTokenRepository.existsById(token.getId());
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    private void remember(String jti, long expiresAtMillis) {
+        generations.computeIfAbsent(bucket(expiresAtMillis),
+                bucket -> new BloomFilter(expectedPerBucket, falsePositiveRate)).put(jti);
+    }
+
+    private void dropExpiredGenerations(long nowMillis) {
+        long current = bucket(nowMillis);
+        if (!generations.isEmpty() && generations.firstKey() < current) {
+            generations.headMap(current).clear();
+        }
+    }
+
+    private long bucket(long epochMillis) {
+        return Math.floorDiv(epochMillis, bucketWidthMillis);
+    }
+}
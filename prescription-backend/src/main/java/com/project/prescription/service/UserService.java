@@ -2,40 +2,131 @@ package com.project.prescription.service;
 
 import com.project.prescription.entity.User;
 import com.project.prescription.repository.UserRepository;
+import com.project.prescription.util.ShardContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users live in the directory shard. Repository calls run in their own directory
+ * transaction, so a caller already inside a transaction on a user's shard does not
+ * have them joined to that shard's connection.
+ */
 @Service
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final TransactionTemplate directoryTransaction;
+    private final TransactionTemplate directoryReadTransaction;
+
+    private final int principalCacheSize;
+    private final long principalCacheTtlMillis;
+    private final Map<String, CachedPrincipal> principalCache;
+    private final AtomicLong principalCacheHits = new AtomicLong();
+    private final AtomicLong principalCacheMisses = new AtomicLong();
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                       @Value("${user.principal-cache.size:1000}") int principalCacheSize,
+                       @Value("${user.principal-cache.ttl-ms:60000}") long principalCacheTtlMillis) {
         this.userRepository = userRepository;
+        this.directoryTransaction = new TransactionTemplate(transactionManager);
+        this.directoryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.directoryReadTransaction = new TransactionTemplate(transactionManager);
+        this.directoryReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.directoryReadTransaction.setReadOnly(true);
+        this.principalCacheSize = principalCacheSize;
+        this.principalCacheTtlMillis = principalCacheTtlMillis;
+        this.principalCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > UserService.this.principalCacheSize;
+            }
+        };
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return user;
+        return findByUsername(username);
     }
 
+    /**
+     * Resolves a user by name, answering from a bounded, TTL-evicting cache so an
+     * authenticated request does not hit the users table on every call.
+     */
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached;
+        synchronized (principalCache) {
+            cached = principalCache.get(username);
+            if (cached != null && cached.expiresAt <= now) {
+                principalCache.remove(username);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            principalCacheHits.incrementAndGet();
+            return cached.user;
+        }
+
+        principalCacheMisses.incrementAndGet();
+        User user = ShardContext.onDirectory(() -> directoryReadTransaction.execute(status ->
+                        userRepository.findByUsername(username)))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        synchronized (principalCache) {
+            principalCache.put(username, new CachedPrincipal(user, now + principalCacheTtlMillis));
+        }
+        return user;
     }
 
     public boolean usernameExists(String username) {
-        return userRepository.existsByUsername(username);
+        return ShardContext.onDirectory(() -> directoryReadTransaction.execute(status ->
+                userRepository.existsByUsername(username)));
     }
 
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = ShardContext.onDirectory(() -> directoryTransaction.execute(status -> userRepository.save(user)));
+        evictPrincipal(saved.getUsername());
+        return saved;
+    }
+
+    public void evictPrincipal(String username) {
+        synchronized (principalCache) {
+            principalCache.remove(username);
+        }
     }
-}
 
+    public long getPrincipalCacheHits() {
+        return principalCacheHits.get();
+    }
+
+    public long getPrincipalCacheMisses() {
+        return principalCacheMisses.get();
+    }
+
+    public int getPrincipalCacheSize() {
+        synchronized (principalCache) {
+            return principalCache.size();
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final User user;
+        private final long expiresAt;
+
+        private CachedPrincipal(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
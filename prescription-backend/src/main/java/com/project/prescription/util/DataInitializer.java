@@ -2,18 +2,35 @@ package com.project.prescription.util;
 
 import com.project.prescription.entity.User;
 import com.project.prescription.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
-
+/**
+ * Creates the admin user on first start, or grants an existing user of that name the admin
+ * role. With admin.bootstrap.async=true the check and the
+ * BCrypt hash run on the application task executor, so the server starts taking requests
+ * without waiting for them. Either way health reports DOWN until the admin exists, so a
+ * client that waits for health can sign in right after.
+ */
 @Component
-public class DataInitializer {
+public class DataInitializer implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TaskExecutor taskExecutor;
+
+    private volatile Health status = Health.down().withDetail("admin", "pending").build();
 
     @Value("${admin.username:admin}")
     private String adminUsername;
@@ -21,22 +38,50 @@ public class DataInitializer {
     @Value("${admin.password:admin}")
     private String adminPassword;
 
+    @Value("${admin.bootstrap.async:false}")
+    private boolean async;
+
     @Autowired
-    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder, TaskExecutor taskExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onStarted() {
+        if (async) {
+            taskExecutor.execute(this::init);
+        } else {
+            init();
+        }
     }
 
-    @PostConstruct
     public void init() {
-        if (!userRepository.existsByUsername(adminUsername)) {
-            User admin = new User();
-            admin.setUsername(adminUsername);
-            admin.setPassword(passwordEncoder.encode(adminPassword));
-            admin.setEnabled(true);
-            userRepository.save(admin);
-            System.out.println("Default admin user created: username=" + adminUsername);
+        try {
+            User existing = userRepository.findByUsername(adminUsername).orElse(null);
+            if (existing == null) {
+                User admin = new User();
+                admin.setUsername(adminUsername);
+                admin.setPassword(passwordEncoder.encode(adminPassword));
+                admin.setEnabled(true);
+                admin.setAdmin(true);
+                userRepository.save(admin);
+                log.info("Default admin user created: username={}", adminUsername);
+            } else if (!existing.isAdmin()) {
+                existing.setAdmin(true);
+                userRepository.save(existing);
+                log.info("Admin role granted: username={}", adminUsername);
+            }
+            status = Health.up().build();
+        } catch (RuntimeException e) {
+            log.error("Admin bootstrap failed", e);
+            status = Health.down(e).build();
         }
     }
-}
 
+    @Override
+    public Health health() {
+        return status;
+    }
+}
@@ -1,8 +1,17 @@
 package com.project.prescription.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -11,6 +20,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
@@ -19,23 +29,84 @@ public class JwtUtil {
     @Value("${jwt.secret:${JWT_SECRET:your-256-bit-secret-key-change-this-in-production}}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    // Null when jwt.verified-cache-size is 0
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private Timer parseTimer;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
         String secretKey = secret;
         if (secretKey.length() < 32) {
             secretKey = secretKey + "a".repeat(32 - secretKey.length());
         }
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(verifiedCacheSize).build()
+                : null;
+        this.parseTimer = Timer.builder("auth.jwt.parse")
+                .description("JWT signature verification and claim parsing")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("auth.jwt.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("auth.jwt.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    private SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Verifies the signature and expiry of a token once and returns its claims.
+     * Tokens seen recently are answered from a bounded concurrent cache keyed by the
+     * token itself, so repeated requests with the same token skip the signature check
+     * until the token expires, without hashing it or taking a shared lock.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens != null) {
+            VerifiedToken cached = verifiedTokens.getIfPresent(token);
+            if (cached != null) {
+                if (!cached.isExpired(System.currentTimeMillis())) {
+                    cacheHits.increment();
+                    return cached;
+                }
+                verifiedTokens.invalidate(token);
+            }
+        }
+
+        cacheMisses.increment();
+        Claims claims = parseTimer.record(() -> parser.parseSignedClaims(token).getPayload());
+        VerifiedToken verified = new VerifiedToken(claims.getId(), claims.getSubject(), claims.getIssuedAt(), claims.getExpiration());
+        if (verifiedTokens != null) {
+            verifiedTokens.put(token, verified);
+        }
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).getExpiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -44,15 +115,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -63,6 +126,7 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -70,9 +134,20 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Lifetime of newly issued access tokens in milliseconds.
+     */
+    public long getExpirationMillis() {
+        return expiration;
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
     }
-}
 
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired(System.currentTimeMillis());
+    }
+}
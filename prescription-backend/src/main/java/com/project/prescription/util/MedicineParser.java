@@ -0,0 +1,156 @@
+package com.project.prescription.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the free-text medicines field into line items. Lines are separated by new lines,
+ * commas or semicolons; within a line the strength ("500mg"), frequency ("1+0+1", "BD",
+ * "twice daily") and duration ("7 days", "2 weeks") are picked out and what is left is
+ * the medicine name. Text that does not fit is kept in the name rather than dropped, and
+ * so is a strength or frequency too long for its column. Durations are read from at most
+ * four digits and capped at ten years.
+ */
+public final class MedicineParser {
+
+    private static final int MAX_NAME_LENGTH = 120;
+    // Column lengths of prescription_medicines.strength and .frequency
+    private static final int MAX_DETAIL_LENGTH = 40;
+    private static final int MAX_DURATION_DAYS = 3650;
+
+    private static final Pattern ITEM_SEPARATORS = Pattern.compile("[\\r\\n;,]+");
+    private static final Pattern STRENGTH = Pattern.compile(
+            "(\\d+(?:\\.\\d+)?)\\s*(mg|mcg|µg|g|ml|iu|units?|%)(?![\\p{L}])", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FREQUENCY = Pattern.compile(
+            "\\b\\d+(?:\\s*\\+\\s*\\d+){2,3}\\b"
+                    + "|\\b(?:once|twice|thrice)\\s+(?:a\\s+)?(?:daily|day|weekly)\\b"
+                    + "|\\b(?:od|bd|bid|tds|tid|qid|qds|hs|prn|stat|daily|weekly)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DURATION = Pattern.compile(
+            "(?:\\bfor\\s+)?\\b(\\d{1,4})\\s*(days?|d|weeks?|wks?|months?)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DOSAGE_FORM_PREFIX = Pattern.compile(
+            "^(?:tab|cap|syp|inj|susp)\\b\\.?\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LEFTOVER = Pattern.compile("\\s*\\b(?:for|x)\\b\\s*$|^[\\s\\p{Punct}]+|[\\s\\p{Punct}&&[^)]]+$",
+            Pattern.CASE_INSENSITIVE);
+
+    private MedicineParser() {
+    }
+
+    public static List<Line> parse(String medicines) {
+        List<Line> lines = new ArrayList<>();
+        if (medicines == null || medicines.isBlank()) {
+            return lines;
+        }
+        for (String item : ITEM_SEPARATORS.split(medicines)) {
+            Line line = parseItem(item);
+            if (line != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static Line parseItem(String item) {
+        StringBuilder rest = new StringBuilder(item);
+
+        String strength = null;
+        Matcher matcher = STRENGTH.matcher(rest);
+        if (matcher.find()) {
+            strength = matcher.group(1) + matcher.group(2).toLowerCase(Locale.ROOT);
+            if (strength.length() > MAX_DETAIL_LENGTH) {
+                strength = null;
+            } else {
+                blank(rest, matcher);
+            }
+        }
+
+        Integer durationDays = null;
+        matcher = DURATION.matcher(rest);
+        if (matcher.find()) {
+            durationDays = toDays(Integer.parseInt(matcher.group(1)), matcher.group(2).toLowerCase(Locale.ROOT));
+            blank(rest, matcher);
+        }
+
+        String frequency = null;
+        matcher = FREQUENCY.matcher(rest);
+        if (matcher.find()) {
+            // "1 + 0 + 1" -> "1+0+1", "Twice  daily" -> "twice daily"
+            frequency = matcher.group().contains("+")
+                    ? matcher.group().replaceAll("\\s+", "")
+                    : matcher.group().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            if (frequency.length() > MAX_DETAIL_LENGTH) {
+                frequency = null;
+            } else {
+                blank(rest, matcher);
+            }
+        }
+
+        String name = DOSAGE_FORM_PREFIX.matcher(rest.toString().trim()).replaceFirst("");
+        String previous;
+        do {
+            previous = name;
+            name = LEFTOVER.matcher(name).replaceAll("");
+        } while (!name.equals(previous));
+        name = name.replaceAll("\\s+", " ");
+        if (name.isEmpty()) {
+            return null;
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            name = name.substring(0, MAX_NAME_LENGTH).trim();
+        }
+        return new Line(name, strength, frequency, durationDays);
+    }
+
+    private static void blank(StringBuilder text, Matcher matcher) {
+        for (int i = matcher.start(); i < matcher.end(); i++) {
+            text.setCharAt(i, ' ');
+        }
+    }
+
+    private static int toDays(int amount, String unit) {
+        int days = amount;
+        if (unit.startsWith("w")) {
+            days = amount * 7;
+        } else if (unit.startsWith("m")) {
+            days = amount * 30;
+        }
+        return Math.min(days, MAX_DURATION_DAYS);
+    }
+
+    /**
+     * One parsed medicine line; everything except the name may be null.
+     */
+    public static final class Line {
+
+        private final String name;
+        private final String strength;
+        private final String frequency;
+        private final Integer durationDays;
+
+        public Line(String name, String strength, String frequency, Integer durationDays) {
+            this.name = name;
+            this.strength = strength;
+            this.frequency = frequency;
+            this.durationDays = durationDays;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getStrength() {
+            return strength;
+        }
+
+        public String getFrequency() {
+            return frequency;
+        }
+
+        public Integer getDurationDays() {
+            return durationDays;
+        }
+    }
+}
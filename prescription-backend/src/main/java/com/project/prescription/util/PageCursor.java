@@ -0,0 +1,48 @@
+package com.project.prescription.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position (prescriptionDate, id) of the last row returned to a client.
+ * Encoded as an opaque URL-safe token so clients cannot depend on its layout.
+ */
+public final class PageCursor {
+
+    private final LocalDate prescriptionDate;
+    private final Long id;
+
+    public PageCursor(LocalDate prescriptionDate, Long id) {
+        this.prescriptionDate = prescriptionDate;
+        this.id = id;
+    }
+
+    public LocalDate getPrescriptionDate() {
+        return prescriptionDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = prescriptionDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new PageCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.prescription.util;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard that connections opened on the current thread go to. A transaction keeps the
+ * connection it started with, so the shard has to be set before the transaction begins;
+ * changing it inside one only affects transactions started from there with REQUIRES_NEW.
+ *
+ * <p>Shard 0 is also the directory: users, tokens and the medicine dictionary live only
+ * there, and it is the shard used when none has been set.
+ */
+public final class ShardContext {
+
+    public static final int DIRECTORY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : DIRECTORY;
+    }
+
+    /**
+     * Sets the current shard and returns the previous one, for {@link #restore}.
+     */
+    public static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+        Integer previous = bind(shard);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static <T> T onDirectory(Supplier<T> action) {
+        return call(DIRECTORY, action);
+    }
+}
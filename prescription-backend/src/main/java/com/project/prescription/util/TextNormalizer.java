@@ -0,0 +1,24 @@
+package com.project.prescription.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds free text to the form the in-memory indexes compare on: accents stripped,
+ * lower case, runs of whitespace collapsed.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        String folded = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded.trim()).replaceAll(" ");
+    }
+}
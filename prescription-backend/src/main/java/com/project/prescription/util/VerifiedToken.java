@@ -0,0 +1,48 @@
+package com.project.prescription.util;
+
+import java.util.Date;
+
+/**
+ * Immutable view of the claims of a token whose signature has already been checked.
+ */
+public final class VerifiedToken {
+
+    private final String id;
+    private final String subject;
+    private final long issuedAtMillis;
+    private final long expirationMillis;
+
+    public VerifiedToken(String id, String subject, Date issuedAt, Date expiration) {
+        this.id = id;
+        this.subject = subject;
+        this.issuedAtMillis = issuedAt != null ? issuedAt.getTime() : 0L;
+        this.expirationMillis = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * The token's {@code jti} claim, or null for tokens issued without one.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getIssuedAt() {
+        return new Date(issuedAtMillis);
+    }
+
+    public Date getExpiration() {
+        return new Date(expirationMillis);
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expirationMillis <= nowMillis;
+    }
+}
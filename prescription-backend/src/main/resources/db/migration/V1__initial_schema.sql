@@ -0,0 +1,95 @@
+-- Schema as of the switch from ddl-auto to Flyway. Later changes go in new V<n>__*.sql files;
+-- never edit a migration that has been released.
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(255) not null unique,
+    password varchar(255) not null,
+    enabled boolean not null,
+    primary key (id)
+);
+
+create sequence prescriptions_seq start with 1 increment by 50;
+
+create table prescriptions (
+    id bigint not null,
+    user_id bigint not null,
+    prescription_date date not null,
+    patient_name varchar(255) not null,
+    patient_age integer not null check (patient_age >= 0 and patient_age <= 150),
+    patient_gender enum ('MALE', 'FEMALE', 'OTHER') not null,
+    diagnosis text,
+    medicines text,
+    next_visit_date date,
+    version bigint,
+    primary key (id)
+);
+
+-- Keyset pages, date-range lists and day-wise counts per user
+create index idx_prescriptions_user_date on prescriptions (user_id, prescription_date, id);
+
+create table daily_prescription_counts (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    count_date date not null,
+    prescription_count bigint not null,
+    primary key (id),
+    constraint uk_daily_counts_user_day unique (user_id, count_date)
+);
+
+create table medicines (
+    id integer generated by default as identity,
+    name varchar(120) not null,
+    display_name varchar(120) not null,
+    primary key (id),
+    constraint uk_medicines_name unique (name)
+);
+
+create sequence prescription_medicines_seq start with 1 increment by 50;
+
+create table prescription_medicines (
+    id bigint not null,
+    prescription_id bigint not null,
+    user_id bigint not null,
+    medicine_id integer not null,
+    prescription_date date not null,
+    position integer not null,
+    strength varchar(40),
+    frequency varchar(40),
+    duration_days integer,
+    primary key (id)
+);
+
+create index idx_prescription_medicines_user_date on prescription_medicines (user_id, prescription_date, medicine_id);
+create index idx_prescription_medicines_prescription on prescription_medicines (prescription_id);
+
+create table refresh_token_families (
+    id varchar(22) not null,
+    user_id bigint not null,
+    current_hash varchar(44) not null,
+    generation integer not null,
+    revoked boolean not null,
+    last_used_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index idx_refresh_token_families_user on refresh_token_families (user_id);
+
+create table revoked_tokens (
+    jti varchar(36) not null,
+    expires_at timestamp(6) with time zone not null,
+    revoked_at timestamp(6) with time zone not null,
+    primary key (jti)
+);
+
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
+
+-- Foreign keys last: H2 reuses an existing index that starts with the key column, whereas a key
+-- declared before the indexes gets an index of its own that the planner may pick instead
+alter table prescriptions add constraint fk_prescriptions_user foreign key (user_id) references users;
+alter table daily_prescription_counts add constraint fk_daily_counts_user foreign key (user_id) references users;
+alter table prescription_medicines add constraint fk_prescription_medicines_prescription foreign key (prescription_id) references prescriptions;
+alter table prescription_medicines add constraint fk_prescription_medicines_user foreign key (user_id) references users;
+alter table prescription_medicines add constraint fk_prescription_medicines_medicine foreign key (medicine_id) references medicines;
+alter table refresh_token_families add constraint fk_refresh_token_families_user foreign key (user_id) references users;
@@ -0,0 +1,18 @@
+-- Prescription data is partitioned by user across several databases, each with this full schema.
+-- Users and the medicine dictionary live only in shard 0, so the per-user tables of the other
+-- shards cannot reference them with foreign keys. Lines still reference their prescription,
+-- which is always in the same shard.
+alter table prescriptions drop constraint fk_prescriptions_user;
+alter table daily_prescription_counts drop constraint fk_daily_counts_user;
+alter table prescription_medicines drop constraint fk_prescription_medicines_user;
+alter table prescription_medicines drop constraint fk_prescription_medicines_medicine;
+
+-- Shard of each user, recorded in shard 0 when the user is first routed or moved
+create table user_shards (
+    user_id bigint not null,
+    shard integer not null,
+    primary key (user_id)
+);
+
+-- Everything written before partitioning is in shard 0
+insert into user_shards (user_id, shard) select id, 0 from users;
@@ -0,0 +1,3 @@
+-- Users with the admin flag are granted ROLE_ADMIN, which the security configuration
+-- requires for the admin endpoints. The configured admin user is flagged at startup.
+alter table users add column admin boolean default false not null;
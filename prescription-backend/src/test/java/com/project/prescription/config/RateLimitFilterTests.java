@@ -0,0 +1,126 @@
+package com.project.prescription.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the GCRA limiter: a client gets its burst, then 429 with a Retry-After of the
+ * wait until the next token, and buckets are kept per user, per address and per limit.
+ */
+class RateLimitFilterTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Writes: one token every 6 s, bursts of 5
+        filter = new RateLimitFilter(true, 10, 5, 60, 20, 600, 100, 10, 5, 60, 20, 60_000, meterRegistry);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void burstIsAllowedThenRejectedWithRetryAfter() throws Exception {
+        signIn("alice");
+        for (int i = 0; i < 5; i++) {
+            assertThat(send("POST", "/api/v1/prescription").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = send("POST", "/api/v1/prescription");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        // Six seconds to the next token, less the time the test has taken so far
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isBetween(5L, 6L);
+        assertThat(rejected.getContentAsString()).contains("Too many requests");
+        assertThat(meterRegistry.counter("http.server.rate_limited", "limit", "write").count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsAreKeptPerUserAndPerLimit() throws Exception {
+        signIn("alice");
+        for (int i = 0; i < 5; i++) {
+            send("DELETE", "/api/v1/prescription/1");
+        }
+        assertThat(send("DELETE", "/api/v1/prescription/1").getStatus()).isEqualTo(429);
+        assertThat(send("GET", "/api/v1/prescription").getStatus()).isEqualTo(200);
+
+        signIn("bob");
+        assertThat(send("DELETE", "/api/v1/prescription/1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void anonymousRequestsAreLimitedPerAddress() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(send("POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(send("POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send("POST", "/api/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void refreshHasItsOwnLooserBucket() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            send("POST", "/api/auth/login", "10.0.0.1");
+        }
+        assertThat(send("POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+
+        // A whole clinic behind the same address keeps refreshing
+        for (int i = 0; i < 20; i++) {
+            assertThat(send("POST", "/api/auth/refresh", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(send("POST", "/api/auth/refresh", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.counter("http.server.rate_limited", "limit", "refresh").count()).isEqualTo(1);
+    }
+
+    @Test
+    void onlyApiPathsAreLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(send("POST", "/actuator/health").getStatus()).isEqualTo(200);
+        }
+
+        filter = new RateLimitFilter(false, 10, 5, 60, 20, 600, 100, 10, 5, 60, 20, 60_000, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            assertThat(send("POST", "/api/auth/login").getStatus()).isEqualTo(200);
+        }
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private MockHttpServletResponse send(String method, String uri) throws Exception {
+        return send(method, uri, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (chain.getRequest() != null) {
+            // Reached the application
+            assertThat(response.getStatus()).isEqualTo(200);
+        } else {
+            assertThat(response.getStatus()).isNotEqualTo(200);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.prescription.controller;
+
+import com.project.prescription.entity.User;
+import com.project.prescription.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the admin endpoints and actuator metrics are open to users with ROLE_ADMIN
+ * only, and that the configured admin user is given that role at startup.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminAccessTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void adminEndpointsAreForbiddenToOtherUsers() throws Exception {
+        User doctor = userService.save(new User("doctor-" + UUID.randomUUID(), "secret"));
+
+        mockMvc.perform(as(doctor, get("/api/v1/admin/shards")))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(as(doctor, post("/api/v1/report/day-wise/rebuild-all")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void metricsAreForAdminsOnlyAndHealthIsOpen() throws Exception {
+        User doctor = userService.save(new User("doctor-" + UUID.randomUUID(), "secret"));
+
+        mockMvc.perform(as(doctor, get("/actuator/metrics")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(as(doctor, get("/actuator/prometheus")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(as(userService.findByUsername("admin"), get("/actuator/metrics")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void adminEndpointsAreOpenToAdmins() throws Exception {
+        User admin = userService.findByUsername("admin");
+
+        mockMvc.perform(as(admin, get("/api/v1/admin/shards")))
+                .andExpect(status().isOk());
+        mockMvc.perform(as(admin, post("/api/v1/report/day-wise/rebuild-all")))
+                .andExpect(status().isOk());
+    }
+
+    private static MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+    }
+}
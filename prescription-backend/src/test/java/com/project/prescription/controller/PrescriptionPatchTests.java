@@ -0,0 +1,113 @@
+package com.project.prescription.controller;
+
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.service.PrescriptionService;
+import com.project.prescription.service.ShardRouter;
+import com.project.prescription.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that versioned writes answer 409 when the prescription was saved after the
+ * version the client read, on both the blind single-UPDATE patch path and the path that
+ * reads the row first, and 404 when the prescription belongs to someone else.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PrescriptionPatchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private User owner;
+    private PrescriptionDTO prescription;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.save(new User("patch-" + UUID.randomUUID(), "secret"));
+        try (ShardRouter.Binding binding = shardRouter.enter(owner)) {
+            prescription = prescriptionService.createPrescription(new PrescriptionDTO(null,
+                    LocalDate.now().minusDays(2), "Lena Berg", 52, Prescription.Gender.FEMALE,
+                    "Hypertension", "Amlodipine 5mg 1-0-0 30 days", null, null), owner);
+        }
+    }
+
+    @Test
+    void stalePatchOfUnindexedFieldsIsAConflict() throws Exception {
+        long version = prescription.getVersion();
+        mockMvc.perform(as(owner, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"patientAge\":53}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        mockMvc.perform(as(owner, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"patientAge\":54}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void stalePatchOfIndexedFieldsIsAConflict() throws Exception {
+        long version = prescription.getVersion();
+        mockMvc.perform(as(owner, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"diagnosis\":\"Essential hypertension\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(as(owner, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"diagnosis\":\"Hypertension, stage 2\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void staleFullUpdateIsAConflict() throws Exception {
+        long version = prescription.getVersion();
+        mockMvc.perform(as(owner, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"patientAge\":53}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(as(owner, put("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + version + ",\"prescriptionDate\":\"" + prescription.getPrescriptionDate()
+                                + "\",\"patientName\":\"Lena Berg\",\"patientAge\":55,\"patientGender\":\"FEMALE\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchOfAnotherUsersPrescriptionIsNotFound() throws Exception {
+        User other = userService.save(new User("patch-" + UUID.randomUUID(), "secret"));
+        mockMvc.perform(as(other, patch("/api/v1/prescription/{id}", prescription.getId()))
+                        .content("{\"version\":" + prescription.getVersion() + ",\"patientAge\":53}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.contentType(MediaType.APPLICATION_JSON)
+                .with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+    }
+}
@@ -0,0 +1,157 @@
+package com.project.prescription.repository;
+
+import com.project.prescription.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Captures the SQL Hibernate generates for each per-user repository query and
+ * checks its H2 EXPLAIN plan, so a query change that falls back to a full scan
+ * of the prescriptions table fails the build.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.project.prescription.repository.PrescriptionRepositoryQueryPlanTests$CapturingInspector")
+class PrescriptionRepositoryQueryPlanTests {
+
+    private static final String USER_DATE_INDEX = "IDX_PRESCRIPTIONS_USER_DATE";
+    private static final String MEDICINES_USER_DATE_INDEX = "IDX_PRESCRIPTION_MEDICINES_USER_DATE";
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PrescriptionMedicineRepository prescriptionMedicineRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("planner", "secret"));
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByUserAndPrescriptionDateBetweenUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findByUserAndPrescriptionDateBetween(user, LocalDate.now().minusDays(30), LocalDate.now());
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findDtoByUserAndPrescriptionDateBetweenUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findDtoByUserAndPrescriptionDateBetween(user, LocalDate.now().minusDays(30), LocalDate.now());
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void countPrescriptionsByDateUsesUserDateIndex() throws Exception {
+        prescriptionRepository.countPrescriptionsByDate(user, LocalDate.now().minusDays(30), LocalDate.now());
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findPageUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findPage(user, LocalDate.now().minusDays(30), LocalDate.now(), Limit.of(10));
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findPageAfterUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findPageAfter(user, LocalDate.now().minusDays(30), LocalDate.now(),
+                LocalDate.now().minusDays(10), 5L, Limit.of(10));
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findSummaryPageUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findSummaryPage(user, LocalDate.now().minusDays(30), LocalDate.now(), Limit.of(10));
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findSummaryPageAfterUsesUserDateIndex() throws Exception {
+        prescriptionRepository.findSummaryPageAfter(user, LocalDate.now().minusDays(30), LocalDate.now(),
+                LocalDate.now().minusDays(10), 5L, Limit.of(10));
+        assertThat(explainLast()).contains(USER_DATE_INDEX);
+    }
+
+    @Test
+    void findByUserAvoidsTableScan() throws Exception {
+        prescriptionRepository.findByUser(user);
+        assertThat(explainLast()).doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findTopMedicinesUsesMedicineLinesIndex() throws Exception {
+        prescriptionMedicineRepository.findTopMedicines(user, LocalDate.now().minusDays(90), LocalDate.now(), Limit.of(10));
+        assertThat(explainLast("prescription_medicines")).contains(MEDICINES_USER_DATE_INDEX);
+    }
+
+    private String explainLast() throws Exception {
+        return explainLast("prescriptions");
+    }
+
+    private String explainLast(String table) throws Exception {
+        String sql = null;
+        for (int i = CapturingInspector.STATEMENTS.size() - 1; i >= 0; i--) {
+            String candidate = CapturingInspector.STATEMENTS.get(i);
+            if (candidate.toLowerCase(Locale.ROOT).contains("from " + table + " ")) {
+                sql = candidate;
+                break;
+            }
+        }
+        assertThat(sql).as("captured " + table + " query").isNotNull();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                switch (parameters.getParameterType(i)) {
+                    case Types.DATE -> statement.setObject(i, LocalDate.now());
+                    case Types.BIGINT, Types.INTEGER -> statement.setLong(i, 1L);
+                    default -> statement.setObject(i, 1);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
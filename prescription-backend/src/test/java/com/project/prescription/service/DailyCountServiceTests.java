@@ -0,0 +1,93 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the daily counters are written in the caller's transaction: a first write of
+ * the day that loses the race to create the row still counts, and a rolled-back write
+ * leaves nothing behind.
+ */
+@SpringBootTest
+class DailyCountServiceTests {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    @Autowired
+    private DailyCountService dailyCountService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void firstWriteThatLosesTheRowRaceStillCounts() throws Exception {
+        User user = userService.save(new User("daily-" + UUID.randomUUID(), "secret"));
+        CountDownLatch rowCreated = new CountDownLatch(1);
+
+        CompletableFuture<Void> winner = CompletableFuture.runAsync(() -> inTransaction(user, () -> {
+            dailyCountService.increment(user, DAY);
+            rowCreated.countDown();
+            sleep(300);
+        }));
+        assertThat(rowCreated.await(10, TimeUnit.SECONDS)).isTrue();
+        // Does not see the uncommitted row, waits on its insert and then adds to it
+        inTransaction(user, () -> dailyCountService.increment(user, DAY));
+        winner.get(10, TimeUnit.SECONDS);
+
+        assertThat(counts(user)).singleElement().satisfies(row -> assertThat(row[1]).isEqualTo(2L));
+    }
+
+    @Test
+    void rolledBackFirstWriteLeavesNoRow() {
+        User user = userService.save(new User("daily-" + UUID.randomUUID(), "secret"));
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                dailyCountService.increment(user, DAY);
+                status.setRollbackOnly();
+            });
+        }
+
+        assertThat(counts(user)).isEmpty();
+        inTransaction(user, () -> dailyCountService.increment(user, DAY));
+        assertThat(counts(user)).singleElement().satisfies(row -> assertThat(row[1]).isEqualTo(1L));
+    }
+
+    private void inTransaction(User user, Runnable work) {
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+        }
+    }
+
+    private List<Object[]> counts(User user) {
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            return dailyCountService.getCounts(user, DAY, DAY);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
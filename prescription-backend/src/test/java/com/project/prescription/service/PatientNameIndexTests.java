@@ -0,0 +1,75 @@
+package com.project.prescription.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that patient-name visits are counted only once the writing transaction commits,
+ * that renames and deletes move and drop visits, and that spellings of one name share an entry.
+ */
+@SpringBootTest
+class PatientNameIndexTests {
+
+    @Autowired
+    private PatientNameIndex patientNameIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void visitsAreCountedOnlyAfterCommit() {
+        Long userId = 920_001L;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            patientNameIndex.record(userId, "José Díaz");
+            assertThat(patientNameIndex.suggest(userId, "jo", 10)).isEmpty();
+        });
+
+        assertThat(suggestions(userId, "jo")).containsExactly("José Díaz:1");
+    }
+
+    @Test
+    void rolledBackChangesAreNotCounted() {
+        Long userId = 920_002L;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> patientNameIndex.record(userId, "Maria Lopez"));
+
+        transaction.executeWithoutResult(status -> {
+            patientNameIndex.record(userId, "Mario Rossi");
+            patientNameIndex.forget(userId, "Maria Lopez");
+            status.setRollbackOnly();
+        });
+
+        assertThat(suggestions(userId, "mari")).containsExactly("Maria Lopez:1");
+    }
+
+    @Test
+    void spellingsShareOneEntryAndRenamesMoveVisits() {
+        Long userId = 920_003L;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            patientNameIndex.record(userId, "jose  diaz");
+            patientNameIndex.record(userId, "José Díaz");
+            patientNameIndex.record(userId, "Joan Roca");
+        });
+        assertThat(suggestions(userId, "JO")).containsExactly("José Díaz:2", "Joan Roca:1");
+
+        transaction.executeWithoutResult(status -> patientNameIndex.rename(userId, "José Díaz", "Joan Roca"));
+        assertThat(suggestions(userId, "jo")).containsExactly("Joan Roca:2", "José Díaz:1");
+
+        transaction.executeWithoutResult(status -> patientNameIndex.forget(userId, "jose diaz"));
+        assertThat(suggestions(userId, "jo")).containsExactly("Joan Roca:2");
+    }
+
+    private List<String> suggestions(Long userId, String prefix) {
+        return patientNameIndex.suggest(userId, prefix, 10).stream()
+                .map(suggestion -> suggestion.getName() + ":" + suggestion.getVisits())
+                .toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.project.prescription.service;
+
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.PrescriptionPatchDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import com.project.prescription.util.PageCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the inverted index follows writes only once their transaction commits:
+ * nothing is visible inside the transaction, nothing is left behind by a rollback, and
+ * updates and deletes through the service replace or drop exactly the old terms. Also
+ * checks that results page by (prescriptionDate, id) rather than by id alone.
+ */
+@SpringBootTest
+class PrescriptionSearchIndexTests {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private PrescriptionSearchIndex searchIndex;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void indexedTermsAppearOnlyAfterCommit() {
+        Long userId = 910_001L;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            searchIndex.index(userId, 1L, DAY, "Acute bronchitis", "Amoxicillin 500mg 1-0-1 5 days");
+            assertThat(searchIndex.search(userId, "amoxicillin", null, 10)).isEmpty();
+        });
+
+        assertThat(searchIndex.search(userId, "amoxicillin", null, 10)).containsExactly(1L);
+        assertThat(searchIndex.search(userId, "bronch*", null, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoTerms() {
+        Long userId = 910_002L;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> searchIndex.index(userId, 1L, DAY, "Migraine", "Ibuprofen 400mg"));
+
+        transaction.executeWithoutResult(status -> {
+            searchIndex.index(userId, 2L, DAY, "Migraine", "Sumatriptan 50mg");
+            searchIndex.remove(userId, 1L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(searchIndex.search(userId, "migraine", null, 10)).containsExactly(1L);
+        assertThat(searchIndex.search(userId, "sumatriptan", null, 10)).isEmpty();
+    }
+
+    @Test
+    void resultsArePagedByDateThenIdNewestFirst() {
+        Long userId = 910_003L;
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Ids out of date order, as after a move between shards
+            searchIndex.index(userId, 5L, DAY.minusDays(2), "Otitis", null);
+            searchIndex.index(userId, 1L, DAY, "Otitis", null);
+            searchIndex.index(userId, 9L, DAY.minusDays(1), "Otitis", null);
+            searchIndex.index(userId, 3L, DAY, "Otitis", null);
+            searchIndex.index(userId, 7L, DAY.minusDays(1), "Sinusitis", null);
+        });
+
+        assertThat(searchIndex.search(userId, "otitis", null, 2)).containsExactly(3L, 1L);
+        assertThat(searchIndex.search(userId, "otitis", new PageCursor(DAY, 1L), 2)).containsExactly(9L, 5L);
+        assertThat(searchIndex.search(userId, "otitis", new PageCursor(DAY.minusDays(2), 5L), 2)).isEmpty();
+        assertThat(searchIndex.search(userId, "otitis OR sinusitis", new PageCursor(DAY.minusDays(1), 9L), 10))
+                .containsExactly(7L, 5L);
+    }
+
+    @Test
+    void serviceWritesKeepTheIndexInStep() {
+        User user = userService.save(new User("search-index-test", "secret"));
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            PrescriptionDTO created = prescriptionService.createPrescription(new PrescriptionDTO(null,
+                    LocalDate.now().minusDays(1), "Ana Ruiz", 41, Prescription.Gender.FEMALE,
+                    "Seasonal allergy", "Cetirizine 10mg 0-0-1 10 days", null, null), user);
+            assertThat(searchIndex.search(user.getId(), "cetirizine", null, 10)).containsExactly(created.getId());
+
+            PrescriptionPatchDTO patch = new PrescriptionPatchDTO();
+            patch.setVersion(created.getVersion());
+            patch.setMedicines("Loratadine 10mg 1-0-0 10 days");
+            prescriptionService.patchPrescription(created.getId(), patch, user);
+            assertThat(searchIndex.search(user.getId(), "cetirizine", null, 10)).isEmpty();
+            assertThat(searchIndex.search(user.getId(), "loratadine allergy", null, 10)).containsExactly(created.getId());
+
+            prescriptionService.deletePrescription(created.getId(), user);
+            assertThat(searchIndex.search(user.getId(), "allergy", null, 10)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.project.prescription.service;
+
+import com.project.prescription.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks refresh-token rotation: each refresh replaces the token, and presenting a token
+ * that has already been replaced revokes the whole family, unless it was replaced within
+ * the grace window and its successor is still current, as when two tabs refresh at once.
+ */
+@SpringBootTest(properties = "jwt.refresh.reuse-grace-ms=1000")
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userService.save(new User("refresh-" + UUID.randomUUID(), "secret"));
+    }
+
+    @Test
+    void rotationReplacesTheTokenWithinItsFamily() {
+        String first = refreshTokenService.issue(user);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertThat(rotation.getUser().getId()).isEqualTo(user.getId());
+        assertThat(rotation.getRefreshToken()).isNotEqualTo(first);
+        assertThat(family(rotation.getRefreshToken())).isEqualTo(family(first));
+        assertThat(refreshTokenService.rotate(rotation.getRefreshToken()).getRefreshToken())
+                .isNotEqualTo(rotation.getRefreshToken());
+    }
+
+    @Test
+    void reusingAReplacedTokenRevokesTheFamily() {
+        String first = refreshTokenService.issue(user);
+        // The family has moved on past first's successor, so the grace window does not apply
+        String second = refreshTokenService.rotate(refreshTokenService.rotate(first).getRefreshToken()).getRefreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class)
+                .hasMessageContaining("reuse");
+        // The legitimate holder's current token is gone too
+        assertThatThrownBy(() -> refreshTokenService.rotate(second))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class)
+                .hasMessageContaining("revoked");
+    }
+
+    @Test
+    void familiesAreIndependent() {
+        String phone = refreshTokenService.issue(user);
+        String laptop = refreshTokenService.issue(user);
+        refreshTokenService.rotate(refreshTokenService.rotate(phone).getRefreshToken());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class);
+        assertThat(refreshTokenService.rotate(laptop).getUser().getId()).isEqualTo(user.getId());
+    }
+
+    @Test
+    void concurrentRefreshesWithOneTokenGetTheSameSuccessor() throws Exception {
+        String shared = refreshTokenService.issue(user);
+        double answeredInGrace = meterRegistry.counter("auth.refresh", "result", "concurrent").count();
+        int tabs = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(tabs);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < tabs; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return refreshTokenService.rotate(shared).getRefreshToken();
+                }));
+            }
+            start.countDown();
+            Set<String> successors = new HashSet<>();
+            for (Future<String> result : results) {
+                successors.add(result.get(10, TimeUnit.SECONDS));
+            }
+
+            assertThat(successors).hasSize(1);
+            assertThat(meterRegistry.counter("auth.refresh", "result", "concurrent").count() - answeredInGrace)
+                    .isEqualTo(tabs - 1);
+            assertThat(refreshTokenService.rotate(successors.iterator().next()).getUser().getId()).isEqualTo(user.getId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void replacedTokenIsReuseOnceTheGraceWindowHasPassed() throws InterruptedException {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).getRefreshToken();
+        assertThat(refreshTokenService.rotate(first).getRefreshToken()).isEqualTo(second);
+
+        Thread.sleep(1_100);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class)
+                .hasMessageContaining("reuse");
+        assertThatThrownBy(() -> refreshTokenService.rotate(second))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void revokedAndMalformedTokensAreRejected() {
+        String token = refreshTokenService.issue(user);
+        refreshTokenService.revoke(token);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class)
+                .hasMessageContaining("revoked");
+        assertThatThrownBy(() -> refreshTokenService.rotate("no-separator"))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(family(token) + ".guessed"))
+                .isInstanceOf(RefreshTokenService.InvalidRefreshTokenException.class);
+    }
+
+    private static String family(String token) {
+        return token.substring(0, token.indexOf('.'));
+    }
+}
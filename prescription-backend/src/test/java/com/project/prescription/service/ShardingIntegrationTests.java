@@ -0,0 +1,164 @@
+package com.project.prescription.service;
+
+import com.project.prescription.config.ShardRoutingDataSource;
+import com.project.prescription.dto.DayCountDTO;
+import com.project.prescription.dto.PrescriptionDTO;
+import com.project.prescription.dto.ShardStatsDTO;
+import com.project.prescription.entity.Prescription;
+import com.project.prescription.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application on two H2 shards and checks that a user's writes land on their
+ * shard only, that cross-shard reads gather every shard, and that moving a user while
+ * their writes keep arriving loses and duplicates nothing.
+ */
+@SpringBootTest(properties = {
+        "sharding.count=2",
+        "spring.datasource.url=jdbc:h2:mem:sharding-tests;DB_CLOSE_DELAY=-1",
+        "sharding.url-pattern=jdbc:h2:mem:sharding-tests-shard{shard};DB_CLOSE_DELAY=-1"
+})
+class ShardingIntegrationTests {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardAdminService shardAdminService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Test
+    void writesGoToTheUsersShardAndReadsGatherEveryShard() {
+        User onFirst = userOnShard(0);
+        User onSecond = userOnShard(1);
+        List<ShardStatsDTO> before = shardAdminService.getStats();
+        long dayTotalBefore = dayTotal();
+
+        create(onFirst, 3);
+        create(onSecond, 2);
+
+        assertThat(rowsOnShard(0, onFirst)).isEqualTo(3);
+        assertThat(rowsOnShard(1, onFirst)).isZero();
+        assertThat(rowsOnShard(1, onSecond)).isEqualTo(2);
+        assertThat(rowsOnShard(0, onSecond)).isZero();
+
+        List<ShardStatsDTO> after = shardAdminService.getStats();
+        assertThat(after).hasSize(2);
+        assertThat(after.get(0).getPrescriptions() - before.get(0).getPrescriptions()).isEqualTo(3);
+        assertThat(after.get(1).getPrescriptions() - before.get(1).getPrescriptions()).isEqualTo(2);
+        assertThat(dayTotal() - dayTotalBefore).isEqualTo(5);
+    }
+
+    @Test
+    void moveUnderConcurrentWritesKeepsEveryRow() throws Exception {
+        User user = userOnShard(0);
+        create(user, 20);
+        long dayTotalBefore = dayTotal();
+
+        int writers = 4;
+        int writesPerWriter = 15;
+        CountDownLatch writing = new CountDownLatch(writers);
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < writesPerWriter; i++) {
+                        create(user, 1);
+                        written.incrementAndGet();
+                        if (i == 2) {
+                            writing.countDown();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            assertThat(writing.await(30, TimeUnit.SECONDS)).isTrue();
+
+            Map<String, Object> move = shardAdminService.moveUser(user, 1);
+
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            assertThat(move.get("from")).isEqualTo(0);
+            assertThat(move.get("to")).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = 20 + writers * writesPerWriter;
+        assertThat(written.get()).isEqualTo(writers * writesPerWriter);
+        assertThat(shardRouter.shardOf(user.getId())).isEqualTo(1);
+        assertThat(rowsOnShard(0, user)).isZero();
+        assertThat(rowsOnShard(1, user)).isEqualTo(total);
+        assertThat(new JdbcTemplate(dataSource.getShard(1)).queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM prescriptions WHERE user_id = ?", Long.class, user.getId()))
+                .isEqualTo(total);
+        assertThat(new JdbcTemplate(dataSource.getShard(1)).queryForObject(
+                "SELECT SUM(prescription_count) FROM daily_prescription_counts WHERE user_id = ?", Long.class, user.getId()))
+                .isEqualTo(total);
+        assertThat(dayTotal() - dayTotalBefore).isEqualTo(writers * writesPerWriter);
+
+        // Reads and writes after the move are served from the new shard
+        create(user, 1);
+        assertThat(rowsOnShard(1, user)).isEqualTo(total + 1);
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            assertThat(prescriptionService.getAllPrescriptions(user)).hasSize(total + 1);
+        }
+    }
+
+    private User userOnShard(int shard) {
+        while (true) {
+            User user = userService.save(new User("shard-" + UUID.randomUUID(), "secret"));
+            if (shardRouter.shardOf(user.getId()) == shard) {
+                return user;
+            }
+        }
+    }
+
+    private void create(User user, int count) {
+        try (ShardRouter.Binding binding = shardRouter.enter(user)) {
+            for (int i = 0; i < count; i++) {
+                prescriptionService.createPrescription(new PrescriptionDTO(null, DAY, "Patient " + i, 30,
+                        Prescription.Gender.OTHER, "Checkup", "Vitamin D 1000IU 1-0-0 30 days", null, null), user);
+            }
+        }
+    }
+
+    private long rowsOnShard(int shard, User user) {
+        return new JdbcTemplate(dataSource.getShard(shard)).queryForObject(
+                "SELECT COUNT(*) FROM prescriptions WHERE user_id = ?", Long.class, user.getId());
+    }
+
+    private long dayTotal() {
+        return shardAdminService.getDayWiseTotals(DAY, DAY).stream().mapToLong(DayCountDTO::getPrescriptionCount).sum();
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.prescription.service;
+
+import com.project.prescription.repository.RevokedTokenRepository;
+import com.project.prescription.util.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the Bloom-filter front of token revocation: revoked ids reach the table lookup,
+ * other tokens are answered from memory, and each token is only checked against the
+ * generation of its expiry bucket, which is dropped once the bucket has passed.
+ */
+class TokenRevocationServiceTests {
+
+    private static final long BUCKET_WIDTH_MILLIS = 60_000L;
+
+    private RevokedTokenRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationService revocations;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(RevokedTokenRepository.class);
+        Mockito.when(repository.streamActive(Mockito.any())).thenReturn(Stream.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        revocations = newService(BUCKET_WIDTH_MILLIS);
+    }
+
+    @Test
+    void revokedTokenIsConfirmedInTheTable() {
+        revocations.loadOnStartup();
+        VerifiedToken token = token("revoked", bucketStart(5) + 1_000);
+        revocations.revoke(token);
+        Mockito.when(repository.existsById("revoked")).thenReturn(true);
+
+        assertThat(revocations.isRevoked(token)).isTrue();
+        assertThat(checks("lookup")).isEqualTo(1);
+        assertThat(checks("revoked")).isEqualTo(1);
+    }
+
+    @Test
+    void otherTokensAreAnsweredWithoutALookup() {
+        revocations.loadOnStartup();
+        long expiry = bucketStart(5) + 1_000;
+        revocations.revoke(token("revoked", expiry));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(revocations.isRevoked(token("valid-" + i, expiry))).isFalse();
+        }
+        assertThat(checks("filtered")).isEqualTo(100);
+        assertThat(checks("lookup")).isZero();
+    }
+
+    @Test
+    void tokensAreOnlyCheckedAgainstTheirOwnGeneration() {
+        revocations.loadOnStartup();
+        revocations.revoke(token("revoked", bucketStart(5) + 1_000));
+        Mockito.when(repository.existsById("revoked")).thenReturn(true);
+
+        // Same id, expiring in another bucket: that generation has nothing in it
+        assertThat(revocations.isRevoked(token("revoked", bucketStart(6) + 1_000))).isFalse();
+        assertThat(checks("lookup")).isZero();
+    }
+
+    @Test
+    void generationIsDroppedOnceItsBucketHasPassed() throws InterruptedException {
+        long width = 50;
+        revocations = newService(width);
+        revocations.loadOnStartup();
+        long bucketEnd = (Math.floorDiv(System.currentTimeMillis(), width) + 2) * width;
+        VerifiedToken token = token("short-lived", bucketEnd - 1);
+        revocations.revoke(token);
+        Mockito.when(repository.existsById("short-lived")).thenReturn(true);
+        assertThat(revocations.isRevoked(token)).isTrue();
+
+        Thread.sleep(Math.max(0, bucketEnd - System.currentTimeMillis()) + width);
+
+        // Signature checking rejects the expired token; the filter no longer holds it
+        assertThat(revocations.isRevoked(token)).isFalse();
+        assertThat(checks("lookup")).isEqualTo(1);
+    }
+
+    @Test
+    void checksGoToTheTableUntilTheFiltersAreLoaded() {
+        Mockito.when(repository.existsById("revoked")).thenReturn(true);
+
+        assertThat(revocations.isRevoked(token("revoked", bucketStart(5)))).isTrue();
+        assertThat(revocations.isRevoked(token("valid", bucketStart(5)))).isFalse();
+        assertThat(checks("lookup")).isEqualTo(2);
+    }
+
+    private TokenRevocationService newService(long bucketWidthMillis) {
+        TokenRevocationService service = new TokenRevocationService(repository,
+                Mockito.mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(service, "bucketWidthMillis", bucketWidthMillis);
+        ReflectionTestUtils.setField(service, "expectedPerBucket", 10_000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        return service;
+    }
+
+    private static long bucketStart(int bucketsFromNow) {
+        return (Math.floorDiv(System.currentTimeMillis(), BUCKET_WIDTH_MILLIS) + bucketsFromNow) * BUCKET_WIDTH_MILLIS;
+    }
+
+    private static VerifiedToken token(String id, long expiresAtMillis) {
+        return new VerifiedToken(id, "user", new Date(), new Date(expiresAtMillis));
+    }
+
+    private long checks(String result) {
+        return (long) meterRegistry.counter("auth.revocation.check", "result", result).count();
+    }
+}
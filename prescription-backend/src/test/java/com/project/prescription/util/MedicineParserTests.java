@@ -0,0 +1,62 @@
+package com.project.prescription.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the medicines parser picks out strength, frequency and duration, and that
+ * input too long for the columns or for an int is kept in the name instead of failing.
+ */
+class MedicineParserTests {
+
+    @Test
+    void picksOutStrengthFrequencyAndDuration() {
+        List<MedicineParser.Line> lines = MedicineParser.parse("Tab. Amoxicillin 500mg 1 + 0 + 1 for 2 weeks; Napa BD");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).getName()).isEqualTo("Amoxicillin");
+        assertThat(lines.get(0).getStrength()).isEqualTo("500mg");
+        assertThat(lines.get(0).getFrequency()).isEqualTo("1+0+1");
+        assertThat(lines.get(0).getDurationDays()).isEqualTo(14);
+        assertThat(lines.get(1).getName()).isEqualTo("Napa");
+        assertThat(lines.get(1).getFrequency()).isEqualTo("bd");
+    }
+
+    @Test
+    void longDigitRunInADurationIsKeptInTheName() {
+        MedicineParser.Line line = MedicineParser.parse("Amoxicillin 99999999999 days").get(0);
+
+        assertThat(line.getDurationDays()).isNull();
+        assertThat(line.getName()).isEqualTo("Amoxicillin 99999999999 days");
+    }
+
+    @Test
+    void longDurationsAreCapped() {
+        assertThat(MedicineParser.parse("Metformin 9999 months").get(0).getDurationDays()).isEqualTo(3650);
+        assertThat(MedicineParser.parse("Metformin 12 months").get(0).getDurationDays()).isEqualTo(360);
+    }
+
+    @Test
+    void strengthOrFrequencyTooLongForItsColumnIsKeptInTheName() {
+        String digits = "1".repeat(42);
+
+        MedicineParser.Line strength = MedicineParser.parse("Napa " + digits + "mg").get(0);
+        assertThat(strength.getStrength()).isNull();
+        assertThat(strength.getName()).isEqualTo("Napa " + digits + "mg");
+
+        MedicineParser.Line frequency = MedicineParser.parse("Napa " + digits + "+0+1").get(0);
+        assertThat(frequency.getFrequency()).isNull();
+        assertThat(frequency.getName()).startsWith("Napa " + digits);
+    }
+
+    @Test
+    void nameIsCutToItsColumn() {
+        MedicineParser.Line line = MedicineParser.parse("Napa " + "9".repeat(200) + "mg 1+0+1").get(0);
+
+        assertThat(line.getName()).hasSize(120);
+        assertThat(line.getFrequency()).isEqualTo("1+0+1");
+    }
+}
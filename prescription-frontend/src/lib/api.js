@@ -33,7 +33,64 @@ const setStoredToken = (token) => {
   }
 }
 
-const request = async (path, { method = 'GET', body, headers, auth = true } = {}) => {
+const getStoredRefreshToken = () => {
+  try {
+    return localStorage.getItem('refreshToken')
+  } catch (error) {
+    console.error('Failed to read refresh token', error)
+    return null
+  }
+}
+
+const setStoredRefreshToken = (token) => {
+  try {
+    if (token) {
+      localStorage.setItem('refreshToken', token)
+    } else {
+      localStorage.removeItem('refreshToken')
+    }
+  } catch (error) {
+    console.error('Failed to persist refresh token', error)
+  }
+}
+
+// Refresh tokens are single-use, so concurrent 401s must share one refresh call
+let pendingRefresh = null
+
+const refreshTokens = () => {
+  const refreshToken = getStoredRefreshToken()
+  if (!refreshToken) {
+    return Promise.resolve(false)
+  }
+
+  if (!pendingRefresh) {
+    pendingRefresh = fetch(`${API_BASE_URL}/api/auth/refresh`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    })
+      .then(async (response) => {
+        if (!response.ok) {
+          setStoredToken(null)
+          setStoredRefreshToken(null)
+          return false
+        }
+        const data = await response.json()
+        setStoredToken(data.token)
+        setStoredRefreshToken(data.refreshToken)
+        return true
+      })
+      .catch(() => false)
+      .finally(() => {
+        pendingRefresh = null
+      })
+  }
+
+  return pendingRefresh
+}
+
+const request = async (path, options = {}, retried = false) => {
+  const { method = 'GET', body, headers, auth = true } = options
   const token = auth ? getStoredToken() : null
 
   const mergedHeaders = new Headers(headers || {})
@@ -52,6 +109,10 @@ const request = async (path, { method = 'GET', body, headers, auth = true } = {}
     body: body !== undefined ? JSON.stringify(body) : undefined,
   })
 
+  if (response.status === 401 && auth && !retried && (await refreshTokens())) {
+    return request(path, options, true)
+  }
+
   if (response.status === 204) {
     return null
   }
@@ -68,5 +129,12 @@ const request = async (path, { method = 'GET', body, headers, auth = true } = {}
   return data
 }
 
-export { request, getStoredToken, setStoredToken, ApiError }
+export {
+  request,
+  getStoredToken,
+  setStoredToken,
+  getStoredRefreshToken,
+  setStoredRefreshToken,
+  ApiError,
+}
 
@@ -3,7 +3,8 @@ import dayjs from 'dayjs'
 import {
   createPrescription,
   deletePrescription,
-  listPrescriptions,
+  getPrescription,
+  listPrescriptionPage,
   updatePrescription,
 } from '../services/prescriptions'
 import DateRangePicker from '../components/DateRangePicker'
@@ -23,25 +24,32 @@ const buildDefaultRange = () => {
 const PrescriptionsPage = () => {
   const [range, setRange] = useState(buildDefaultRange)
   const [prescriptions, setPrescriptions] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(false)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [error, setError] = useState(null)
   const [showForm, setShowForm] = useState(false)
   const [formMode, setFormMode] = useState('create')
   const [selectedPrescription, setSelectedPrescription] = useState(null)
+  const [openingId, setOpeningId] = useState(null)
   const [formSubmitting, setFormSubmitting] = useState(false)
   const [formErrors, setFormErrors] = useState(null)
   const [feedback, setFeedback] = useState(null)
 
+  // Only the first page is fetched; further pages are appended on request with the server's cursor
   const loadPrescriptions = useCallback(
     async (nextRange = range) => {
       setLoading(true)
       setError(null)
       try {
-        const data = await listPrescriptions(nextRange)
-        setPrescriptions(Array.isArray(data) ? data : [])
+        // Summary rows only; the full prescription is fetched when a row is edited
+        const page = await listPrescriptionPage(nextRange)
+        setPrescriptions(page?.items ?? [])
+        setNextCursor(page?.hasMore ? page.nextCursor : null)
       } catch (err) {
         const message = err instanceof ApiError ? err.message : 'Failed to load prescriptions'
         setError(message)
+        setNextCursor(null)
       } finally {
         setLoading(false)
       }
@@ -49,6 +57,22 @@ const PrescriptionsPage = () => {
     [range],
   )
 
+  const loadMorePrescriptions = async () => {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    setError(null)
+    try {
+      const page = await listPrescriptionPage({ ...range, cursor: nextCursor })
+      setPrescriptions((current) => [...current, ...(page?.items ?? [])])
+      setNextCursor(page?.hasMore ? page.nextCursor : null)
+    } catch (err) {
+      const message = err instanceof ApiError ? err.message : 'Failed to load more prescriptions'
+      setError(message)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   useEffect(() => {
     loadPrescriptions(range)
   }, [range, loadPrescriptions])
@@ -60,11 +84,21 @@ const PrescriptionsPage = () => {
     setShowForm(true)
   }
 
-  const openEditForm = (prescription) => {
+  const openEditForm = async (prescription) => {
     setFormErrors(null)
-    setSelectedPrescription(prescription)
-    setFormMode('edit')
-    setShowForm(true)
+    setFeedback(null)
+    setOpeningId(prescription.id)
+    try {
+      const detail = await getPrescription(prescription.id)
+      setSelectedPrescription(detail)
+      setFormMode('edit')
+      setShowForm(true)
+    } catch (err) {
+      const message = err instanceof ApiError ? err.message : 'Failed to load prescription'
+      setFeedback(message)
+    } finally {
+      setOpeningId(null)
+    }
   }
 
   const closeForm = () => {
@@ -165,8 +199,6 @@ const PrescriptionsPage = () => {
                 <th className="px-4 py-3 text-left">Patient</th>
                 <th className="px-4 py-3 text-left">Age</th>
                 <th className="px-4 py-3 text-left">Gender</th>
-                <th className="px-4 py-3 text-left">Diagnosis</th>
-                <th className="px-4 py-3 text-left">Medicines</th>
                 <th className="px-4 py-3 text-left">Next visit</th>
                 <th className="px-4 py-3 text-right">Actions</th>
               </tr>
@@ -174,7 +206,7 @@ const PrescriptionsPage = () => {
             <tbody className="bg-white">
               {loading ? (
                 <tr>
-                  <td colSpan={8} className="px-4 py-8 text-center text-sm text-slate-500">
+                  <td colSpan={6} className="px-4 py-8 text-center text-sm text-slate-500">
                     Loading prescriptions…
                   </td>
                 </tr>
@@ -187,8 +219,6 @@ const PrescriptionsPage = () => {
                     <td className="px-4 py-3 text-sm text-slate-900">{prescription.patientName}</td>
                     <td className="px-4 py-3 text-sm text-slate-600">{prescription.patientAge}</td>
                     <td className="px-4 py-3 text-sm capitalize text-slate-600">{prescription.patientGender}</td>
-                    <td className="px-4 py-3 text-sm text-slate-600">{prescription.diagnosis || '—'}</td>
-                    <td className="px-4 py-3 text-sm text-slate-600">{prescription.medicines || '—'}</td>
                     <td className="px-4 py-3 text-sm text-slate-600">
                       {formatDisplayDate(prescription.nextVisitDate)}
                     </td>
@@ -197,9 +227,10 @@ const PrescriptionsPage = () => {
                         <button
                           type="button"
                           onClick={() => openEditForm(prescription)}
-                          className="rounded-md border border-slate-200 px-3 py-1 text-xs font-semibold text-slate-600 transition hover:border-emerald-400 hover:bg-emerald-50 hover:text-emerald-700"
+                          disabled={openingId === prescription.id}
+                          className="rounded-md border border-slate-200 px-3 py-1 text-xs font-semibold text-slate-600 transition hover:border-emerald-400 hover:bg-emerald-50 hover:text-emerald-700 disabled:cursor-not-allowed disabled:opacity-60"
                         >
-                          Edit
+                          {openingId === prescription.id ? 'Opening…' : 'Edit'}
                         </button>
                         <button
                           type="button"
@@ -214,7 +245,7 @@ const PrescriptionsPage = () => {
                 ))
               ) : (
                 <tr>
-                  <td colSpan={8} className="px-4 py-8 text-center text-sm text-slate-500">
+                  <td colSpan={6} className="px-4 py-8 text-center text-sm text-slate-500">
                     No prescriptions found for the selected date range.
                   </td>
                 </tr>
@@ -222,6 +253,19 @@ const PrescriptionsPage = () => {
             </tbody>
           </table>
         </div>
+
+        {nextCursor && !loading ? (
+          <div className="mt-4 flex justify-center">
+            <button
+              type="button"
+              onClick={loadMorePrescriptions}
+              disabled={loadingMore}
+              className="h-10 rounded-lg border border-slate-200 px-4 text-sm font-medium text-slate-600 transition hover:border-emerald-400 hover:text-emerald-700 disabled:cursor-not-allowed disabled:opacity-60"
+            >
+              {loadingMore ? 'Loading…' : 'Load more'}
+            </button>
+          </div>
+        ) : null}
       </section>
 
       {showForm ? (
@@ -1,4 +1,10 @@
-import { request, setStoredToken, getStoredToken } from '../lib/api'
+import {
+  request,
+  setStoredToken,
+  getStoredToken,
+  getStoredRefreshToken,
+  setStoredRefreshToken,
+} from '../lib/api'
 
 const login = async (credentials) => {
   const data = await request('/api/auth/login', {
@@ -9,13 +15,30 @@ const login = async (credentials) => {
 
   if (data?.token) {
     setStoredToken(data.token)
+    setStoredRefreshToken(data.refreshToken)
   }
 
   return data
 }
 
-const logout = () => {
+const logout = async () => {
+  const token = getStoredToken()
+  const refreshToken = getStoredRefreshToken()
   setStoredToken(null)
+  setStoredRefreshToken(null)
+
+  if (token || refreshToken) {
+    try {
+      await request('/api/auth/logout', {
+        method: 'POST',
+        body: { refreshToken },
+        headers: token ? { Authorization: `Bearer ${token}` } : undefined,
+        auth: false,
+      })
+    } catch (error) {
+      console.error('Failed to revoke refresh token', error)
+    }
+  }
 }
 
 const getProfile = async () => {
@@ -1,14 +1,33 @@
 import { request } from '../lib/api'
 
-const listPrescriptions = ({ startDate, endDate } = {}) => {
+// List and search items are summaries (no diagnosis or medicines) unless fields asks for more,
+// e.g. 'detail' or 'summary,diagnosis'
+const listPrescriptionPage = ({ startDate, endDate, cursor, size, fields } = {}) => {
   const params = new URLSearchParams()
   if (startDate) params.set('startDate', startDate)
   if (endDate) params.set('endDate', endDate)
+  if (cursor) params.set('cursor', cursor)
+  if (size) params.set('size', size)
+  if (fields) params.set('fields', fields)
 
   const query = params.toString()
   return request(`/api/v1/prescription${query ? `?${query}` : ''}`)
 }
 
+const searchPrescriptions = ({ q, cursor, size, fields } = {}) => {
+  const params = new URLSearchParams({ q })
+  if (cursor) params.set('cursor', cursor)
+  if (size) params.set('size', size)
+  if (fields) params.set('fields', fields)
+
+  return request(`/api/v1/prescription/search?${params.toString()}`)
+}
+
+const suggestPatientNames = (prefix, limit = 10) => {
+  const params = new URLSearchParams({ prefix, limit })
+  return request(`/api/v1/prescription/patient-names?${params.toString()}`)
+}
+
 const getPrescription = (id) => request(`/api/v1/prescription/${id}`)
 
 const createPrescription = (payload) =>
@@ -23,16 +42,25 @@ const updatePrescription = (id, payload) =>
     body: payload,
   })
 
+const patchPrescription = (id, changes, version) =>
+  request(`/api/v1/prescription/${id}`, {
+    method: 'PATCH',
+    body: { ...changes, version },
+  })
+
 const deletePrescription = (id) =>
   request(`/api/v1/prescription/${id}`, {
     method: 'DELETE',
   })
 
 export {
-  listPrescriptions,
+  listPrescriptionPage,
+  searchPrescriptions,
+  suggestPatientNames,
   getPrescription,
   createPrescription,
   updatePrescription,
+  patchPrescription,
   deletePrescription,
 }
 
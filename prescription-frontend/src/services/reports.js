@@ -9,5 +9,27 @@ const dayWiseReport = ({ startDate, endDate } = {}) => {
   return request(`/api/v1/report/day-wise${query ? `?${query}` : ''}`)
 }
 
-export { dayWiseReport }
+const topMedicinesReport = ({ startDate, endDate, limit } = {}) => {
+  const params = new URLSearchParams()
+  if (startDate) params.set('startDate', startDate)
+  if (endDate) params.set('endDate', endDate)
+  if (limit) params.set('limit', limit)
+
+  const query = params.toString()
+  return request(`/api/v1/report/top-medicines${query ? `?${query}` : ''}`)
+}
+
+const demographicsReport = ({ startDate, endDate, facets, ageBandWidth, topDiagnoses } = {}) => {
+  const params = new URLSearchParams()
+  if (startDate) params.set('startDate', startDate)
+  if (endDate) params.set('endDate', endDate)
+  if (facets?.length) params.set('facets', facets.join(','))
+  if (ageBandWidth) params.set('ageBandWidth', ageBandWidth)
+  if (topDiagnoses) params.set('topDiagnoses', topDiagnoses)
+
+  const query = params.toString()
+  return request(`/api/v1/report/demographics${query ? `?${query}` : ''}`)
+}
+
+export { dayWiseReport, topMedicinesReport, demographicsReport }
 